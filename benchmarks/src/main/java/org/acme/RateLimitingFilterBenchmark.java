@@ -0,0 +1,77 @@
+package org.acme;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import org.acme.jmh.StubRequestContext;
+import org.acme.jmh.StubUriInfo;
+import org.acme.ratelimit.RateLimitFixtures;
+import org.acme.ratelimit.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link RateLimitingFilter}, a partir dos dados já lidos da requisição Vert.x, com várias threads ao mesmo tempo:
+ * todas com o mesmo cliente (disputa pelo CAS do mesmo TAT) ou cada uma com o seu.
+ * A rota tem um intervalo de 1 ns, então nenhuma requisição é recusada e o que se mede é o
+ * caminho de aceitação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class RateLimitingFilterBenchmark {
+
+    @Param({"shared", "perThread"})
+    String clients;
+
+    RateLimiter limiter;
+    RateLimiter.Route route;
+
+    private final AtomicInteger nextClient = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        Duration period = Duration.ofHours(1);
+        limiter = RateLimitFixtures.limiter(RateLimitFixtures.config(period.toNanos(), period, 20, 1), System::nanoTime);
+        route = limiter.route("api");
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        RateLimitingFilter filter;
+        ContainerRequestContext context;
+        String forwardedFor;
+
+        @Setup
+        public void setUp(RateLimitingFilterBenchmark benchmark) {
+            String address = benchmark.clients.equals("shared")
+                    ? "203.0.113.10"
+                    : "203.0.113." + benchmark.nextClient.incrementAndGet();
+            forwardedFor = "198.51.100.7, " + address;
+            filter = new RateLimitingFilter(benchmark.limiter, benchmark.route);
+            context = new StubRequestContext("GET", new StubUriInfo("/api/v1/musicas"));
+        }
+    }
+
+    @Benchmark
+    public void filter(Client client) {
+        client.filter.filter(client.context, client.forwardedFor, "10.0.0.1", "page=0&size=40");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.acme.projection.ArtistaView;
+import org.acme.projection.GeneroMusicalView;
+import org.acme.projection.MusicaView;
+import org.acme.projection.PerfilArtistaView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização, em cada formato negociado, do que os endpoints mais devolvem: uma música com
+ * artista, perfil e gêneros, um artista com perfil e uma página de busca de músicas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    String format;
+
+    @Param({"20"})
+    int pageSize;
+
+    ObjectMapper mapper;
+    Musica musica;
+    Artista artista;
+    SearchMusicaResponse page;
+
+    @Setup
+    public void setUp() {
+        // Mesmas configurações do ObjectMapper padrão do Quarkus; os binários são cópias dele, como no FormatMappers
+        ObjectMapper json = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        mapper = switch (format) {
+            case "CBOR" -> json.copyWith(new CBORFactory());
+            case "SMILE" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+
+        PerfilArtista perfil = new PerfilArtista(
+                "Cantora, compositora e produtora com mais de duas décadas de carreira.",
+                "R&B", "Diversos Grammys e prêmios internacionais");
+        perfil.id = 3L;
+        artista = new Artista(3L, "Beyoncé", "Beyoncé Giselle Knowles-Carter", LocalDate.of(1997, 11, 1), "Estados Unidos", perfil);
+
+        musica = new Musica(7L, "Halo", "Remember those walls I built...", 2008, 9.1, 261);
+        musica.artista = artista;
+        for (long id = 1; id <= 2; id++) {
+            GeneroMusical genero = new GeneroMusical();
+            genero.id = id;
+            genero.nome = id == 1 ? "Pop" : "R&B";
+            genero.descricao = "Gênero " + genero.nome;
+            musica.generos.add(genero);
+        }
+
+        PerfilArtistaView perfilView = new PerfilArtistaView();
+        perfilView.id = perfil.id;
+        perfilView.descricaoCarreira = perfil.descricaoCarreira;
+        perfilView.estiloMusicalPrincipal = perfil.estiloMusicalPrincipal;
+        perfilView.premiosEReconhecimentos = perfil.premiosEReconhecimentos;
+        ArtistaView artistaView = new ArtistaView();
+        artistaView.id = artista.id;
+        artistaView.nomeArtistico = artista.nomeArtistico;
+        artistaView.nomeCompleto = artista.nomeCompleto;
+        artistaView.dataDeEstreia = artista.dataDeEstreia;
+        artistaView.paisDeOrigem = artista.paisDeOrigem;
+        artistaView.perfil = perfilView;
+        GeneroMusicalView generoView = new GeneroMusicalView();
+        generoView.id = 1L;
+        generoView.nome = "Pop";
+        generoView.descricao = "Gênero Pop";
+
+        page = new SearchMusicaResponse();
+        for (int i = 0; i < pageSize; i++) {
+            MusicaView view = new MusicaView();
+            view.id = (long) i + 1;
+            view.titulo = "Música " + i;
+            view.letra = "Letra da música " + i;
+            view.anoLancamento = 2000 + i;
+            view.nota = 7.5;
+            view.duracaoSegundos = 200 + i;
+            view.artista = artistaView;
+            view.generos = List.of(generoView);
+            page.Musicas.add(view);
+        }
+        page.TotalMusicas = 1000;
+        page.TotalPages = 1000 / pageSize;
+        page.HasMore = true;
+        page.NextCursor = "eyJpZCI6MjB9";
+    }
+
+    @Benchmark
+    public byte[] musica() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(musica);
+    }
+
+    @Benchmark
+    public byte[] artista() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(artista);
+    }
+
+    @Benchmark
+    public byte[] searchPage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(page);
+    }
+}
\ No newline at end of file
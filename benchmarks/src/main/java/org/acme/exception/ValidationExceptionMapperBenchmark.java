@@ -0,0 +1,80 @@
+package org.acme.exception;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Path;
+import jakarta.validation.TraversableResolver;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.ws.rs.core.Response;
+import org.acme.Musica;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.annotation.ElementType;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ValidationExceptionMapper#toResponse} para uma música com vários campos inválidos,
+ * como no POST de um corpo mal preenchido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationExceptionMapperBenchmark {
+
+    ValidatorFactory factory;
+    ValidationExceptionMapper mapper;
+    ConstraintViolationException exception;
+
+    @Setup
+    public void setUp() {
+        // Sem Jakarta EL e sem consultar o estado JPA das entidades, que aqui não são gerenciadas
+        factory = Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .traversableResolver(new TraversableResolver() {
+                    @Override
+                    public boolean isReachable(Object bean, Path.Node node, Class<?> rootType, Path path, ElementType type) {
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isCascadable(Object bean, Path.Node node, Class<?> rootType, Path path, ElementType type) {
+                        return true;
+                    }
+                })
+                .buildValidatorFactory();
+        Validator validator = factory.getValidator();
+
+        Musica musica = new Musica(null, "", "", 1850, 11.5, 240);
+        Set<ConstraintViolation<Musica>> violations = validator.validate(musica);
+        exception = new ConstraintViolationException(violations);
+        mapper = new ValidationExceptionMapper();
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Response toResponse() {
+        return mapper.toResponse(exception);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package org.acme.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import org.acme.idempotency.IdempotencyFilter.IdempotencyRecord;
+import org.acme.jmh.StubRequestContext;
+import org.acme.jmh.StubUriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criação da chave de idempotência e consulta ao near-cache do {@link IdempotencyStore}, com uma
+ * chave recente e uma ausente. A reivindicação, que vai ao banco, fica de fora.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdempotencyBenchmark {
+
+    ContainerRequestContext context;
+    IdempotencyStore store;
+    String recentKey;
+    String unknownKey;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        context = new StubRequestContext("POST", new StubUriInfo("/api/v1/musicas"));
+
+        store = new IdempotencyStore();
+        store.registry = new SimpleMeterRegistry();
+        store.maxBytes = 16 * 1024 * 1024;
+        store.init();
+
+        recentKey = IdempotencyFilter.createCacheKey(context, "chave-42");
+        unknownKey = IdempotencyFilter.createCacheKey(context, "3f2b8c1e-nunca-vista");
+        // O near-cache é preenchido direto, sem o banco
+        @SuppressWarnings("unchecked")
+        Cache<String, IdempotencyRecord> nearCache = (Cache<String, IdempotencyRecord>) get(store, "nearCache");
+        nearCache.put(recentKey, new IdempotencyRecord(201, "{\"id\":42}".getBytes(),
+                Map.of("Location", "/api/v1/musicas/42"), TimeUnit.HOURS.toNanos(1)));
+    }
+
+    @Benchmark
+    public String createKey() {
+        return IdempotencyFilter.createCacheKey(context, "3f2b8c1e-9a4d-4e6f-b1c2-d3e4f5a6b7c8");
+    }
+
+    @Benchmark
+    public IdempotencyRecord findUnknown() {
+        return store.find(unknownKey);
+    }
+
+    @Benchmark
+    public IdempotencyRecord findRecent() {
+        return store.find(recentKey);
+    }
+
+    private static Object get(Object target, String name) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package org.acme.jmh;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@link ContainerRequestContext} com método, {@link UriInfo} e propriedades, para exercitar os
+ * filtros fora do Quarkus. A resposta passada a {@link #abortWith} fica disponível em {@link #getAborted()}.
+ * Os demais métodos não são usados pelos benchmarks e lançam {@link UnsupportedOperationException}.
+ */
+public class StubRequestContext implements ContainerRequestContext {
+
+    private final String method;
+    private final UriInfo uriInfo;
+    private final Map<String, Object> properties = new HashMap<>();
+    private Response aborted;
+
+    public StubRequestContext(String method, UriInfo uriInfo) {
+        this.method = method;
+        this.uriInfo = uriInfo;
+    }
+
+    public Response getAborted() {
+        return aborted;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return properties.get(name);
+    }
+
+    @Override
+    public Collection<String> getPropertyNames() {
+        return properties.keySet();
+    }
+
+    @Override
+    public void setProperty(String name, Object object) {
+        properties.put(name, object);
+    }
+
+    @Override
+    public void removeProperty(String name) {
+        properties.remove(name);
+    }
+
+    @Override
+    public UriInfo getUriInfo() {
+        return uriInfo;
+    }
+
+    @Override
+    public void setRequestUri(URI requestUri) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setRequestUri(URI baseUri, URI requestUri) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Request getRequest() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public void setMethod(String method) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getHeaders() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getHeaderString(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Date getDate() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Locale getLanguage() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getLength() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<MediaType> getAcceptableMediaTypes() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Locale> getAcceptableLanguages() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Cookie> getCookies() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasEntity() {
+        return false;
+    }
+
+    @Override
+    public InputStream getEntityStream() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setEntityStream(InputStream input) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SecurityContext getSecurityContext() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setSecurityContext(SecurityContext context) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void abortWith(Response response) {
+        aborted = response;
+    }
+}
@@ -0,0 +1,117 @@
+package org.acme.jmh;
+
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.PathSegment;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * {@link UriInfo} com apenas o caminho da requisição, para exercitar os filtros fora do Quarkus.
+ * Os demais métodos não são usados pelos benchmarks e lançam {@link UnsupportedOperationException}.
+ */
+public class StubUriInfo implements UriInfo {
+
+    private final String path;
+
+    public StubUriInfo(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String getPath(boolean decode) {
+        return path;
+    }
+
+    @Override
+    public List<PathSegment> getPathSegments() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<PathSegment> getPathSegments(boolean decode) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public URI getRequestUri() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public UriBuilder getRequestUriBuilder() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public URI getAbsolutePath() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public UriBuilder getAbsolutePathBuilder() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public URI getBaseUri() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public UriBuilder getBaseUriBuilder() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getPathParameters() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getPathParameters(boolean decode) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getQueryParameters() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getQueryParameters(boolean decode) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<String> getMatchedURIs() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<String> getMatchedURIs(boolean decode) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Object> getMatchedResources() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public URI resolve(URI uri) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public URI relativize(URI uri) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -3,6 +3,8 @@ package org.acme;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.acme.search.TextNormalizer;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.validation.constraints.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -10,16 +12,34 @@ import java.util.List;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_artista_nome", columnList = "nomeArtistico, id"),
+        @Index(name = "idx_artista_estreia", columnList = "dataDeEstreia, id"),
+        @Index(name = "idx_artista_pais", columnList = "paisDeOrigem, id"),
+        @Index(name = "idx_artista_nome_busca", columnList = "nomeArtisticoBusca"),
+        @Index(name = "idx_artista_pais_busca", columnList = "paisDeOrigemBusca")
+})
 public class Artista extends PanacheEntityBase {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "artista_seq")
+    @SequenceGenerator(name = "artista_seq", sequenceName = "artista_seq", allocationSize = 50)
     @Schema(readOnly = true)
     public Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    public long versao;
+
     @NotBlank(message = "O nome artístico não pode ser vazio")
     @Size(min = 2, max = 100, message = "O nome artístico deve ter entre 2 e 100 caracteres")
     public String nomeArtistico;
 
+    // Nome artístico e país normalizados (minúsculas, sem acentos), mantidos pelos callbacks abaixo
+    @JsonIgnore
+    @Column(length = 100)
+    public String nomeArtisticoBusca;
+
     public String nomeCompleto;
 
     @Past(message = "A data de estreia deve ser no passado")
@@ -29,6 +49,10 @@ public class Artista extends PanacheEntityBase {
     @Size(max = 80)
     public String paisDeOrigem;
 
+    @JsonIgnore
+    @Column(length = 80)
+    public String paisDeOrigemBusca;
+
     @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @JoinColumn(name = "perfil_artista_id")
     public PerfilArtista perfil;
@@ -39,6 +63,13 @@ public class Artista extends PanacheEntityBase {
 
     public Artista() {}
 
+    @PrePersist
+    @PreUpdate
+    void atualizarChavesDeBusca() {
+        nomeArtisticoBusca = TextNormalizer.normalize(nomeArtistico);
+        paisDeOrigemBusca = TextNormalizer.normalize(paisDeOrigem);
+    }
+
     public Artista(Long id, String nomeArtistico, String nomeCompleto, LocalDate dataDeEstreia, String paisDeOrigem, PerfilArtista perfil) {
         this.id = id;
         this.nomeArtistico = nomeArtistico;
@@ -0,0 +1,9 @@
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchInsertResponse {
+    public int TotalInseridos;
+    public List<Long> Ids = new ArrayList<>();
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package org.acme;
+
+import io.smallrye.config.SmallRyeConfig;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.Provider;
+import org.acme.idempotency.Idempotent;
+import org.acme.idempotency.IdempotencyFilter;
+import org.acme.ratelimit.RateLimitConfig;
+import org.acme.ratelimit.RateLimiter;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * Liga os filtros de idempotência e de limite de requisições, na inicialização, só aos métodos de
+ * resource que precisam deles, com a configuração de cada método já resolvida. Os demais métodos
+ * não passam por nenhum dos dois filtros. Roda durante a inicialização estática, antes dos beans:
+ * as rotas de rate limit são resolvidas pela configuração e o estado delas é obtido no primeiro uso.
+ */
+@Provider
+public class FilterBindings implements DynamicFeature {
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        Method method = resourceInfo.getResourceMethod();
+        Class<?> clazz = resourceInfo.getResourceClass();
+
+        Idempotent idempotent = method.getAnnotation(Idempotent.class);
+        if (idempotent == null) {
+            idempotent = clazz.getAnnotation(Idempotent.class);
+        }
+        if (idempotent != null) {
+            context.register(new IdempotencyFilter(idempotent.expireAfter()), Priorities.HEADER_DECORATOR);
+        }
+
+        String route = RateLimiter.routeName(rateLimitConfig(), path(clazz, method), httpMethod(method));
+        if (route != null) {
+            context.register(new RateLimitingFilter(route), Priorities.HEADER_DECORATOR);
+        }
+    }
+
+    // Roda na inicialização estática: só a configuração está disponível, não os beans
+    private static RateLimitConfig rateLimitConfig() {
+        return ConfigProvider.getConfig().unwrap(SmallRyeConfig.class).getConfigMapping(RateLimitConfig.class);
+    }
+
+    // Template do caminho, por exemplo /api/v1/musicas/{id}; os prefixos das rotas são literais
+    private static String path(Class<?> clazz, Method method) {
+        Path classPath = clazz.getAnnotation(Path.class);
+        Path methodPath = method.getAnnotation(Path.class);
+        StringBuilder path = new StringBuilder();
+        for (Path segment : new Path[]{classPath, methodPath}) {
+            if (segment == null) {
+                continue;
+            }
+            String value = segment.value();
+            if (!value.startsWith("/")) {
+                path.append('/');
+            }
+            path.append(value);
+        }
+        return path.length() == 0 ? "/" : path.toString().replace("//", "/");
+    }
+
+    private static String httpMethod(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            HttpMethod httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (httpMethod != null) {
+                return httpMethod.value();
+            }
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -3,19 +3,35 @@ package org.acme;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.acme.search.TextNormalizer;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.validation.constraints.*;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import java.util.HashSet;
 import java.util.Set;
 
+// Tabela pequena e raramente alterada: mantida no cache de segundo nível, invalidado pelo Hibernate nas escritas
 @Entity
+@Cacheable
+@Table(indexes = {
+        @Index(name = "idx_genero_nome", columnList = "nome, id"),
+        @Index(name = "idx_genero_descricao", columnList = "descricao, id"),
+        @Index(name = "idx_genero_nome_busca", columnList = "nomeBusca"),
+        @Index(name = "idx_genero_descricao_busca", columnList = "descricaoBusca")
+})
 public class GeneroMusical extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "genero_musical_seq")
+    @SequenceGenerator(name = "genero_musical_seq", sequenceName = "genero_musical_seq", allocationSize = 50)
     @Schema(readOnly = true, example = "1")
     public Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    public long versao;
+
     @NotBlank(message = "O nome do gênero não pode ser vazio")
     @Size(min = 2, max = 50, message = "Nome do gênero deve ter entre 2 e 50 caracteres")
     public String nome;
@@ -23,12 +39,28 @@ public class GeneroMusical extends PanacheEntityBase {
     @Size(max = 200, message = "A descrição não pode ultrapassar 200 caracteres")
     public String descricao;
 
+    // Nome e descrição normalizados (minúsculas, sem acentos), mantidos pelos callbacks abaixo
+    @JsonIgnore
+    @Column(length = 50)
+    public String nomeBusca;
+
+    @JsonIgnore
+    @Column(length = 200)
+    public String descricaoBusca;
+
     @ManyToMany(mappedBy = "generos", fetch = FetchType.LAZY)
     @JsonIgnore
     public Set<Musica> musicas = new HashSet<>();
 
     public GeneroMusical() {}
 
+    @PrePersist
+    @PreUpdate
+    void atualizarChavesDeBusca() {
+        nomeBusca = TextNormalizer.normalize(nome);
+        descricaoBusca = TextNormalizer.normalize(descricao);
+    }
+
     /*
     public GeneroMusical(String nome, String descricao) {
         this.nome = nome;
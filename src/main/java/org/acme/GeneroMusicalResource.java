@@ -1,20 +1,42 @@
 package org.acme;
 
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
-import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
 
+import org.acme.batch.BatchInserter;
+import org.acme.cache.CachedResponse;
+import org.acme.cache.EntityTags;
+import org.acme.cache.MultiGet;
+import org.acme.cache.ResponseCache;
+import org.acme.events.EntityChanged;
+import org.acme.format.Format;
 import org.acme.idempotency.Idempotent;
+import org.acme.projection.ProjectionQueries;
+import org.acme.projection.GeneroMusicalView;
+import org.acme.search.CountCache;
+import org.acme.search.Cursor;
+import org.acme.search.SearchIndex;
+import org.acme.search.TextNormalizer;
+import org.acme.sqllog.QueryOrigin;
+import org.acme.streaming.EntityStreamer;
 
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.Fallback;
 import org.eclipse.microprofile.faulttolerance.Timeout;
 import io.smallrye.faulttolerance.api.RateLimit;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import java.time.temporal.ChronoUnit;
 
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -27,15 +49,49 @@ import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Path("/api/v1/generos-musicais")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, Format.APPLICATION_CBOR, Format.APPLICATION_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, Format.APPLICATION_CBOR, Format.APPLICATION_SMILE})
+@QueryOrigin
 public class GeneroMusicalResource {
 
+    private static final String STREAM_QUERY =
+            "select g from GeneroMusical g order by g.id";
+
+    @Inject
+    SearchIndex searchIndex;
+
+    @Inject
+    CountCache countCache;
+
+    @Inject
+    ProjectionQueries queries;
+
+    @Inject
+    ResponseCache responseCache;
+
+    @Inject
+    EntityTags entityTags;
+
+    @Inject
+    MultiGet multiGet;
+
+    @Inject
+    EntityStreamer streamer;
+
+    @Inject
+    BatchInserter batchInserter;
+
+    @Inject
+    Event<EntityChanged> changes;
+
     @GET
     @Operation(
             summary = "Retorna todos os gêneros musicais (getAll)",
@@ -52,15 +108,64 @@ public class GeneroMusicalResource {
     @Timeout(value = 800, unit = ChronoUnit.MILLIS)
     @CircuitBreaker(requestVolumeThreshold = 5, failureRatio = 0.6, delay = 5000)
     @Fallback(fallbackMethod = "fallbackGetAll")
-    public Response getAll(){
-        return Response.ok(GeneroMusical.listAll()).build();
+    public Response getAll(
+            @Parameter(description = "Campos do gênero musical incluídos na resposta, separados por vírgula, por exemplo id,nome. Só esses campos são lidos do banco; o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Parameter(description = "Ids separados por vírgula. Quando informado, retorna só esses gêneros musicais, na ordem pedida e com Encontrado false para os inexistentes")
+            @QueryParam("ids") String ids,
+            @Context Request request){
+        if(ids != null){
+            return multiGet.get(GeneroMusical.class, ids, request,
+                    missing -> GeneroMusical.<GeneroMusical>list("id in ?1", missing),
+                    genero -> genero.id, EntityTags::of);
+        }
+        Set<String> selected = ProjectionQueries.fields(fields);
+        Format format = Format.negotiate(request);
+        String key = "all|" + ProjectionQueries.fieldsKey(selected) + "|" + format;
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(
+                responseCache.collectionTag(GeneroMusical.class, key));
+        if(notModified != null){
+            return notModified.build();
+        }
+        CachedResponse cached = responseCache.collection(GeneroMusical.class, key, format,
+                () -> queries.generos(null, null, "g.id asc", 0, 0, selected));
+        return responseCache.ok(cached, format).build();
     }
 
-    public Response fallbackGetAll() {
+    public Response fallbackGetAll(String fields, String ids, Request request) {
+        if (ids != null) {
+            // A busca por ids não tem resposta vazia equivalente: uma lista vazia esconderia a falha
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity("Serviço de busca indisponível para os IDs: " + ids + ". Tente novamente mais tarde.")
+                    .type(MediaType.TEXT_PLAIN)
+                    .build();
+        }
         List<GeneroMusical> listaVazia = Collections.emptyList();
         return Response.ok(listaVazia).build();
     }
 
+    @GET
+    @Path("/stream")
+    @Produces({EntityStreamer.APPLICATION_NDJSON, MediaType.APPLICATION_JSON})
+    @Operation(
+            summary = "Retorna todos os gêneros musicais em streaming (stream)",
+            description = "Envia todos os gêneros musicais à medida que são lidos do banco, com memória constante. Com Accept application/x-ndjson retorna um objeto JSON por linha; caso contrário, um array JSON em chunks"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Lista enviada com sucesso",
+            content = @Content(
+                    schema = @Schema(implementation = GeneroMusical.class, type = SchemaType.ARRAY)
+            )
+    )
+    @RunOnVirtualThread
+    public Response stream(@Context HttpHeaders headers){
+        boolean ndjson = EntityStreamer.wantsNdjson(headers);
+        return Response.ok(streamer.stream(STREAM_QUERY, GeneroMusical.class, ndjson))
+                .type(ndjson ? EntityStreamer.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .build();
+    }
+
     @GET
     @Path("{id}")
     @Operation(
@@ -82,15 +187,57 @@ public class GeneroMusicalResource {
     @Fallback(fallbackMethod = "fallbackGetById")
     public Response getById(
             @Parameter(description = "Id do gênero musical a ser pesquisado", required = true)
-            @PathParam("id") long id){
-        GeneroMusical entity = GeneroMusical.findById(id);
-        if(entity == null){
+            @PathParam("id") long id,
+            @Parameter(description = "Campos do gênero musical incluídos na resposta, separados por vírgula, por exemplo id,nome. Só esses campos são lidos do banco; o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Context Request request){
+        Set<String> selected = ProjectionQueries.fields(fields);
+        if(selected != null){
+            return getFields(id, selected, request);
+        }
+
+        // A ETag vem sempre da consulta das versões: a do cache pode ser de antes de uma escrita feita em outra réplica
+        Format format = Format.negotiate(request);
+        EntityTag tag = format.tag(entityTags.genero(id));
+        if(tag == null){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if(notModified != null){
+            return notModified.build();
+        }
+
+        CachedResponse cached = responseCache.byId(GeneroMusical.class, id, format, tag, () -> GeneroMusical.findById(id), EntityTags::of);
+        if(cached == null){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(entity).build();
+        return responseCache.ok(cached, format).build();
     }
 
-    public Response fallbackGetById(long id) {
+    // Representação parcial: só as colunas pedidas são lidas, sem passar pelo cache de respostas
+    private Response getFields(long id, Set<String> selected, Request request){
+        EntityTag tag = entityTags.genero(id);
+        if(tag == null){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        Format format = Format.negotiate(request);
+        tag = format.tag(EntityTags.variant(tag, ProjectionQueries.fieldsKey(selected)));
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if(notModified != null){
+            return notModified.build();
+        }
+
+        List<GeneroMusicalView> generos = queries.generos("g.id = :id", Map.of("id", id), "g.id asc", 0, 1, selected);
+        if(generos.isEmpty()){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(generos.get(0), format.mediaType())
+                .tag(tag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    public Response fallbackGetById(long id, String fields, Request request) {
         return Response.status(Response.Status.SERVICE_UNAVAILABLE)
                 .entity("Serviço de busca indisponível para o ID: " + id + ". Tente novamente mais tarde.")
                 .type(MediaType.TEXT_PLAIN)
@@ -110,8 +257,9 @@ public class GeneroMusicalResource {
             )
     )
     @Path("/search")
+    @RunOnVirtualThread
     public Response search(
-            @Parameter(description = "Query de buscar por nome ou descrição")
+            @Parameter(description = "Query de buscar por nome ou descrição. Ignora maiúsculas e acentos e encontra o termo em qualquer parte dos textos, também quando tem menos de 3 caracteres. Termos com 3 ou mais caracteres muito comuns trazem apenas as primeiras ocorrências em ordem de id")
             @QueryParam("q") String q,
             @Parameter(description = "Campo de ordenação da lista de retorno")
             @QueryParam("sort") @DefaultValue("id") String sort,
@@ -120,40 +268,120 @@ public class GeneroMusicalResource {
             @Parameter(description = "Define qual página será retornada na response")
             @QueryParam("page") @DefaultValue("0") int page,
             @Parameter(description = "Define quantos objetos serão retornados por query")
-            @QueryParam("size") @DefaultValue("4") int size
+            @QueryParam("size") @DefaultValue("4") int size,
+            @Parameter(description = "Cursor opaco retornado em NextCursor. Quando informado, a paginação é feita por keyset e substitui page, sort e direction")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Quando false, não calcula o total de itens e de páginas")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+            @Parameter(description = "Campos do gênero musical incluídos na resposta, separados por vírgula, por exemplo id,nome. Só esses campos são lidos do banco; o id sempre vem. O campo de ordenação também sempre vem, pois compõe o cursor")
+            @QueryParam("fields") String fields,
+            @Context UriInfo uriInfo,
+            @Context Request request
     ){
+        String query = uriInfo.getRequestUri().getRawQuery();
+        Format format = Format.negotiate(request);
+        EntityTag tag = responseCache.collectionTag(GeneroMusical.class, "search:" + (query == null ? "" : query) + "|" + format);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if(notModified != null){
+            return notModified.build();
+        }
+
+
         Set<String> allowed = Set.of("id", "nome", "descricao");
-        if(!allowed.contains(sort)){
+
+        Cursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = Cursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity("Cursor inválido").build();
+            }
+            if (!allowed.contains(after.getSort())) {
+                return Response.status(Response.Status.BAD_REQUEST).entity("Cursor inválido").build();
+            }
+            sort = after.getSort();
+        } else if(!allowed.contains(sort)){
             sort = "id";
         }
 
-        Sort sortObj = Sort.by(
-                sort,
-                "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
-        );
+        boolean descending = after != null ? after.isDescending() : "desc".equalsIgnoreCase(direction);
+        String orderBy = Cursor.orderBy("g", sort, descending);
+        Set<String> selected = ProjectionQueries.fields(fields);
+        if (selected != null) {
+            selected.add(sort);
+        }
 
         int effectivePage = Math.max(page, 0);
+        int effectiveSize = Math.max(size, 1);
 
-        PanacheQuery<GeneroMusical> query;
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
 
-        if (q == null || q.isBlank()) {
-            query = GeneroMusical.findAll(sortObj);
-        } else {
-            query = GeneroMusical.find(
-                    "lower(nome) like ?1 or lower(descricao) like ?1", sortObj, "%" + q.toLowerCase() + "%");
+        String filterKey = "";
+        List<Long> indexed = null;
+        if (q != null && !q.isBlank()) {
+            if (searchIndex.supports(q)) {
+                // Termos muito comuns ficam com as primeiras ocorrências em ordem de id (search.index.max-candidates)
+                indexed = searchIndex.generos(q);
+                params.put("ids", indexed);
+                conditions.add("g.id in :ids");
+            } else {
+                // Termo curto demais para o índice de trigramas (menos de 3 caracteres):
+                // substring nas colunas normalizadas, em que o LIMIT da página encontra as linhas cedo quando são muitas
+                String termo = TextNormalizer.normalize(q.trim());
+                params.put("termo", "%" + termo + "%");
+                conditions.add("(g.nomeBusca like :termo or g.descricaoBusca like :termo)");
+                filterKey = "contem:" + termo;
+            }
         }
 
-        List<GeneroMusical> generos = query.page(effectivePage, size).list();
+        String filter = String.join(" and ", conditions);
+        Map<String, Object> filterParams = new HashMap<>(params);
+
+        if (after != null) {
+            Object lastValue;
+            try {
+                lastValue = parseSortValue(sort, after.getValue());
+            } catch (RuntimeException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity("Cursor inválido").build();
+            }
+            conditions.add(after.seek("g", lastValue, params));
+        }
 
         var response = new SearchGeneroMusicalResponse();
+        // Busca size+1 linhas para saber se há próxima página sem precisar de COUNT
+        int first = after == null ? effectivePage * effectiveSize : 0;
+        List<GeneroMusicalView> generos = queries.generos(String.join(" and ", conditions), params, orderBy,
+                first, effectiveSize + 1, selected);
+        response.HasMore = generos.size() > effectiveSize;
+        if (response.HasMore) {
+            generos = generos.subList(0, effectiveSize);
+        }
         response.GenerosMusicais = generos;
-        response.TotalGenerosMusicais = (int) query.count();
-        response.TotalPages = query.pageCount();
-        response.HasMore = effectivePage < query.pageCount() - 1;
 
-        response.NextPage = response.HasMore ? "http://localhost:8080/api/v1/generos-musicais/search?q="+(q != null ? q : "")+"&page="+(effectivePage + 1) + (size > 0 ? "&size="+size : "") : "";
+        if (includeTotal) {
+            long total = indexed != null
+                    ? indexed.size()
+                    : countCache.get(GeneroMusical.class, filterKey,
+                            () -> queries.count("GeneroMusical", "g", filter, filterParams));
+            response.TotalGenerosMusicais = total;
+            response.TotalPages = (int) ((total + effectiveSize - 1) / effectiveSize);
+        }
+
+        response.NextCursor = "";
+        response.NextPage = "";
+        if (response.HasMore) {
+            GeneroMusicalView last = generos.get(generos.size() - 1);
+            response.NextCursor = Cursor.after(sort, descending, sortValue(last, sort), last.id).encode();
+            response.NextPage = after == null
+                    ? uriInfo.getRequestUriBuilder().replaceQueryParam("page", effectivePage + 1).build().toString()
+                    : uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", response.NextCursor).build().toString();
+        }
 
-        return Response.ok(response).build();
+        return Response.ok(response, format.mediaType())
+                .tag(tag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
     }
 
     @POST
@@ -188,6 +416,7 @@ public class GeneroMusicalResource {
     public Response insert(@Valid GeneroMusical genero){
 
         GeneroMusical.persist(genero);
+        changes.fire(EntityChanged.created(GeneroMusical.class, genero.id, genero));
 
         URI location = UriBuilder.fromResource(GeneroMusicalResource.class).path("{id}").build(genero.id);
         return Response
@@ -196,6 +425,42 @@ public class GeneroMusicalResource {
                 .build();
     }
 
+    @POST
+    @Path("/batch")
+    @Operation(
+            summary = "Adiciona vários registros à lista de gêneros musicais (insertBatch)",
+            description = "Adiciona uma lista de gêneros musicais por meio de POST e request body JSON (array). Os gêneros musicais são gravados em blocos JDBC, numa única transação (ou todos ou nenhum), e os IDs gerados são retornados na ordem do envio."
+    )
+    @Parameter(
+            name = "X-Idempotency-Key",
+            in = ParameterIn.HEADER,
+            required = true,
+            description = "Chave única para evitar duplicação. Se enviar a mesma chave, não grava de novo."
+    )
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    schema = @Schema(implementation = GeneroMusical.class, type = SchemaType.ARRAY)
+            )
+    )
+    @APIResponse(
+            responseCode = "201",
+            description = "Created - Retorna os IDs gerados, na ordem do envio.",
+            content = @Content(
+                    schema = @Schema(implementation = BatchInsertResponse.class))
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request"
+    )
+    @Idempotent
+    public Response insertBatch(@NotEmpty @Valid List<GeneroMusical> generos){
+        var response = new BatchInsertResponse();
+        response.Ids = batchInserter.insert(GeneroMusical.class, generos, item -> {}, item -> item.id);
+        response.TotalInseridos = response.Ids.size();
+        return Response.status(Response.Status.CREATED).entity(response).build();
+    }
+
     @DELETE
     @Operation(
             summary = "Remove um registro da lista de gêneros musicais (delete)",
@@ -215,11 +480,15 @@ public class GeneroMusicalResource {
     )
     @Transactional
     @Path("{id}")
-    public Response delete(@PathParam("id") long id){
+    public Response delete(@PathParam("id") long id, @Context Request request, @Context HttpHeaders headers){
         GeneroMusical entity = GeneroMusical.findById(id);
         if(entity == null){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
+        Response.ResponseBuilder failed = EntityTags.evaluateWrite(request, headers, EntityTags.of(entity));
+        if(failed != null){
+            return failed.build();
+        }
 
         long musicasVinculadas = Musica.count("?1 MEMBER OF generos", entity);
         if(musicasVinculadas > 0){
@@ -229,6 +498,7 @@ public class GeneroMusicalResource {
         }
 
         GeneroMusical.deleteById(id);
+        changes.fire(EntityChanged.deleted(GeneroMusical.class, id));
         return Response.noContent().build();
     }
 
@@ -256,15 +526,42 @@ public class GeneroMusicalResource {
     )
     @Transactional
     @Path("{id}")
-    public Response update(@PathParam("id") long id,@Valid GeneroMusical newGeneroMusical){
+    public Response update(@PathParam("id") long id,@Valid GeneroMusical newGeneroMusical, @Context Request request, @Context HttpHeaders headers){
         GeneroMusical entity = GeneroMusical.findById(id);
         if(entity == null){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
+        Response.ResponseBuilder failed = EntityTags.evaluateWrite(request, headers, EntityTags.of(entity));
+        if(failed != null){
+            return failed.build();
+        }
 
         entity.nome = newGeneroMusical.nome;
         entity.descricao = newGeneroMusical.descricao;
 
-        return Response.status(Response.Status.OK).entity(entity).build();
+        // Aplica a alteração já aqui para que a ETag retornada reflita a nova versão
+        GeneroMusical.flush();
+        changes.fire(EntityChanged.updated(GeneroMusical.class, id, entity));
+        // ETag no formato negociado, a mesma que um GET nesse formato retornaria
+        Format format = Format.negotiate(request);
+        return Response.ok(entity, format.mediaType())
+                .tag(format.tag(EntityTags.of(entity)))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    private static Object sortValue(GeneroMusicalView genero, String sort) {
+        return switch (sort) {
+            case "nome" -> genero.nome;
+            case "descricao" -> genero.descricao;
+            default -> genero.id;
+        };
+    }
+
+    private static Object parseSortValue(String sort, String value) {
+        if (value == null) {
+            return null;
+        }
+        return sort.equals("id") ? Long.valueOf(value) : value;
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package org.acme;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.acme.cache.CachedBody;
+
+/**
+ * Um item da busca por vários ids ({@code ?ids=}), na posição em que o id foi pedido.
+ * Quando o id não existe, Encontrado é false e Item não vem.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MultiGetItem {
+    public long Id;
+    public boolean Encontrado;
+    public CachedBody Item;
+
+    public MultiGetItem(long id, CachedBody item) {
+        this.Id = id;
+        this.Encontrado = item != null;
+        this.Item = item;
+    }
+}
\ No newline at end of file
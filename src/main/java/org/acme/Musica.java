@@ -1,24 +1,48 @@
 package org.acme;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.acme.search.TextNormalizer;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.validation.constraints.*;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import java.util.HashSet;
 import java.util.Set;
 
+// Índices das colunas filtradas e ordenáveis na busca; as ordenações usam (campo, id), como o cursor.
+// A letra, longa demais para um índice útil, continua ordenável sem índice
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_musica_artista", columnList = "artista_id"),
+        @Index(name = "idx_musica_titulo", columnList = "titulo, id"),
+        @Index(name = "idx_musica_ano", columnList = "anoLancamento, id"),
+        @Index(name = "idx_musica_nota", columnList = "nota, id"),
+        @Index(name = "idx_musica_duracao", columnList = "duracaoSegundos, id"),
+        @Index(name = "idx_musica_titulo_busca", columnList = "tituloBusca")
+})
 public class Musica extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "musica_seq")
+    @SequenceGenerator(name = "musica_seq", sequenceName = "musica_seq", allocationSize = 50)
     @Schema(readOnly = true, example = "1")
     public Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    public long versao;
+
     @NotBlank(message = "O título não pode ser vazio")
     @Size(min = 1, max = 200)
     public String titulo;
 
+    // Título normalizado (minúsculas, sem acentos), mantido pelos callbacks abaixo
+    @JsonIgnore
+    @Column(length = 200)
+    public String tituloBusca;
+
     @NotBlank(message = "A letra é obrigatória")
     @Size(max = 2000)
     public String letra;
@@ -41,12 +65,20 @@ public class Musica extends PanacheEntityBase {
     @JoinTable(
             name = "musica_genero",
             joinColumns = @JoinColumn(name = "musica_id"),
-            inverseJoinColumns = @JoinColumn(name = "genero_musical_id")
+            inverseJoinColumns = @JoinColumn(name = "genero_musical_id"),
+            // A chave primária gerada começa por genero_musical_id; este índice cobre a direção música -> gêneros
+            indexes = @Index(name = "idx_musica_genero_musica", columnList = "musica_id")
     )
     public Set<GeneroMusical> generos = new HashSet<>();
 
     public Musica() {}
 
+    @PrePersist
+    @PreUpdate
+    void atualizarChavesDeBusca() {
+        tituloBusca = TextNormalizer.normalize(titulo);
+    }
+
     public Musica(Long id, String titulo, String letra, int anoLancamento, double nota, int duracaoSegundos) {
         this.id = id;
         this.titulo = titulo;
@@ -1,20 +1,43 @@
 package org.acme;
 
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
-import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
 
+import org.acme.batch.BatchInserter;
+import org.acme.cache.CachedResponse;
+import org.acme.cache.EntityTags;
+import org.acme.cache.MultiGet;
+import org.acme.cache.ResponseCache;
+import org.acme.events.EntityChanged;
+import org.acme.format.Format;
 import org.acme.idempotency.Idempotent;
+import org.acme.projection.ProjectionQueries;
+import org.acme.projection.MusicaView;
+import org.acme.search.CountCache;
+import org.acme.search.Cursor;
+import org.acme.search.SearchIndex;
+import org.acme.search.TextNormalizer;
+import org.acme.sqllog.QueryOrigin;
+import org.acme.streaming.EntityStreamer;
+import org.hibernate.Session;
 
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.Fallback;
 import org.eclipse.microprofile.faulttolerance.Timeout;
 import io.smallrye.faulttolerance.api.RateLimit;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import java.time.temporal.ChronoUnit;
 
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -27,16 +50,56 @@ import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Path("/api/v1/musicas")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, Format.APPLICATION_CBOR, Format.APPLICATION_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, Format.APPLICATION_CBOR, Format.APPLICATION_SMILE})
+@QueryOrigin
 public class MusicaResource {
 
+    private static final String STREAM_QUERY =
+            "select m from Musica m left join fetch m.artista a left join fetch a.perfil order by m.id";
+    // Inicializa os gêneros das músicas do bloco, já gerenciadas pela sessão do streaming, numa só consulta
+    private static final String STREAM_GENEROS_QUERY =
+            "select distinct m from Musica m left join fetch m.generos where m.id in :ids";
+
+    @Inject
+    SearchIndex searchIndex;
+
+    @Inject
+    CountCache countCache;
+
+    @Inject
+    ProjectionQueries queries;
+
+    @Inject
+    ResponseCache responseCache;
+
+    @Inject
+    EntityTags entityTags;
+
+    @Inject
+    MultiGet multiGet;
+
+    @Inject
+    EntityStreamer streamer;
+
+    @Inject
+    BatchInserter batchInserter;
+
+    @Inject
+    Event<EntityChanged> changes;
+
+    @Inject
+    Session session;
+
     @GET
     @Operation(
             summary = "Retorna todas as músicas (getAll)",
@@ -53,15 +116,77 @@ public class MusicaResource {
     @Timeout(value = 800, unit = ChronoUnit.MILLIS)
     @CircuitBreaker(requestVolumeThreshold = 5, failureRatio = 0.6, delay = 5000)
     @Fallback(fallbackMethod = "fallbackGetAll")
-    public Response getAll(){
-        return Response.ok(Musica.listAll()).build();
+    public Response getAll(
+            @Parameter(description = "Associações incluídas na resposta, separadas por vírgula: artista, perfil e generos. Envie vazio para não incluir nenhuma")
+            @QueryParam("expand") @DefaultValue("artista,perfil,generos") String expand,
+            @Parameter(description = "Campos da música incluídos na resposta, separados por vírgula, por exemplo id,titulo,anoLancamento. Só esses campos são lidos do banco; o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Parameter(description = "Ids separados por vírgula. Quando informado, retorna só essas músicas, na ordem pedida e com Encontrado false para os inexistentes")
+            @QueryParam("ids") String ids,
+            @Context Request request){
+        if(ids != null){
+            return multiGet.get(Musica.class, ids, request,
+                    missing -> Musica.<Musica>find("select distinct m from Musica m left join fetch m.artista a"
+                            + " left join fetch a.perfil left join fetch m.generos where m.id in ?1", missing).list(),
+                    musica -> musica.id, EntityTags::of);
+        }
+        Set<String> expanded = ProjectionQueries.expand(expand);
+        Set<String> selected = ProjectionQueries.fields(fields);
+        Format format = Format.negotiate(request);
+        String key = "all:" + String.join(",", expanded) + "|" + ProjectionQueries.fieldsKey(selected) + "|" + format;
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(responseCache.collectionTag(Musica.class, key));
+        if(notModified != null){
+            return notModified.build();
+        }
+        CachedResponse cached = responseCache.collection(Musica.class, key, format,
+                () -> queries.musicas(null, null, "m.id asc", 0, 0, expanded, selected));
+        return responseCache.ok(cached, format).build();
     }
 
-    public Response fallbackGetAll() {
+    public Response fallbackGetAll(String expand, String fields, String ids, Request request) {
+        if (ids != null) {
+            // A busca por ids não tem resposta vazia equivalente: uma lista vazia esconderia a falha
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity("Serviço de busca indisponível para os IDs: " + ids + ". Tente novamente mais tarde.")
+                    .type(MediaType.TEXT_PLAIN)
+                    .build();
+        }
         List<Musica> listaVazia = Collections.emptyList();
         return Response.ok(listaVazia).build();
     }
 
+    @GET
+    @Path("/stream")
+    @Produces({EntityStreamer.APPLICATION_NDJSON, MediaType.APPLICATION_JSON})
+    @Operation(
+            summary = "Retorna todas as músicas em streaming (stream)",
+            description = "Envia todas as músicas à medida que são lidas do banco, com memória constante. Com Accept application/x-ndjson retorna um objeto JSON por linha; caso contrário, um array JSON em chunks"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "Lista enviada com sucesso",
+            content = @Content(
+                    schema = @Schema(implementation = Musica.class, type = SchemaType.ARRAY)
+            )
+    )
+    @RunOnVirtualThread
+    public Response stream(@Context HttpHeaders headers){
+        boolean ndjson = EntityStreamer.wantsNdjson(headers);
+        return Response.ok(streamer.stream(STREAM_QUERY, Musica.class, ndjson, MusicaResource::loadGeneros))
+                .type(ndjson ? EntityStreamer.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private static void loadGeneros(Session session, List<Musica> musicas){
+        List<Long> ids = new ArrayList<>(musicas.size());
+        for (Musica musica : musicas) {
+            ids.add(musica.id);
+        }
+        session.createSelectionQuery(STREAM_GENEROS_QUERY, Musica.class)
+                .setParameterList("ids", ids)
+                .getResultList();
+    }
+
     @GET
     @Path("{id}")
     @Operation(
@@ -83,15 +208,57 @@ public class MusicaResource {
     @Fallback(fallbackMethod = "fallbackGetById")
     public Response getById(
             @Parameter(description = "Id da música a ser pesquisada", required = true)
-            @PathParam("id") long id){
-        Musica entity = Musica.findById(id);
-        if(entity == null){
+            @PathParam("id") long id,
+            @Parameter(description = "Campos da música incluídos na resposta, separados por vírgula, por exemplo id,titulo,anoLancamento. Só esses campos são lidos do banco; o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Context Request request){
+        Set<String> selected = ProjectionQueries.fields(fields);
+        if(selected != null){
+            return getFields(id, selected, request);
+        }
+
+        // A ETag vem sempre da consulta das versões: a do cache pode ser de antes de uma escrita feita em outra réplica
+        Format format = Format.negotiate(request);
+        EntityTag tag = format.tag(entityTags.musica(id));
+        if(tag == null){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(entity).build();
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if(notModified != null){
+            return notModified.build();
+        }
+
+        CachedResponse cached = responseCache.byId(Musica.class, id, format, tag, () -> Musica.findById(id), EntityTags::of);
+        if(cached == null){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return responseCache.ok(cached, format).build();
+    }
+
+    // Representação parcial: só as colunas pedidas são lidas, sem passar pelo cache de respostas
+    private Response getFields(long id, Set<String> selected, Request request){
+        EntityTag tag = entityTags.musica(id);
+        if(tag == null){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        Format format = Format.negotiate(request);
+        tag = format.tag(EntityTags.variant(tag, ProjectionQueries.fieldsKey(selected)));
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if(notModified != null){
+            return notModified.build();
+        }
+
+        List<MusicaView> musicas = queries.musicas("m.id = :id", Map.of("id", id), "m.id asc", 0, 1, Set.of(), selected);
+        if(musicas.isEmpty()){
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(musicas.get(0), format.mediaType())
+                .tag(tag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
     }
 
-    public Response fallbackGetById(long id) {
+    public Response fallbackGetById(long id, String fields, Request request) {
         return Response.status(Response.Status.SERVICE_UNAVAILABLE)
                 .entity("Serviço de busca indisponível para o ID: " + id + ". Tente novamente mais tarde.")
                 .type(MediaType.TEXT_PLAIN)
@@ -111,8 +278,9 @@ public class MusicaResource {
             )
     )
     @Path("/search")
+    @RunOnVirtualThread
     public Response search(
-            @Parameter(description = "Query de buscar por título, ano de lançamento ou duração")
+            @Parameter(description = "Query de buscar por título, ano de lançamento ou duração. Ignora maiúsculas e acentos e encontra o termo em qualquer parte dos textos, também quando tem menos de 3 caracteres. Termos com 3 ou mais caracteres muito comuns trazem apenas as primeiras ocorrências em ordem de id")
             @QueryParam("q") String q,
             @Parameter(description = "Campo de ordenação da lista de retorno")
             @QueryParam("sort") @DefaultValue("id") String sort,
@@ -121,52 +289,129 @@ public class MusicaResource {
             @Parameter(description = "Define qual página será retornada na response")
             @QueryParam("page") @DefaultValue("0") int page,
             @Parameter(description = "Define quantos objetos serão retornados por query")
-            @QueryParam("size") @DefaultValue("4") int size
+            @QueryParam("size") @DefaultValue("4") int size,
+            @Parameter(description = "Cursor opaco retornado em NextCursor. Quando informado, a paginação é feita por keyset e substitui page, sort e direction")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Quando false, não calcula o total de itens e de páginas")
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+            @Parameter(description = "Associações incluídas na resposta, separadas por vírgula: artista, perfil e generos. Envie vazio para não incluir nenhuma")
+            @QueryParam("expand") @DefaultValue("artista,perfil,generos") String expand,
+            @Parameter(description = "Campos da música incluídos na resposta, separados por vírgula, por exemplo id,titulo,anoLancamento. Só esses campos são lidos do banco; o id sempre vem. O campo de ordenação também sempre vem, pois compõe o cursor")
+            @QueryParam("fields") String fields,
+            @Context UriInfo uriInfo,
+            @Context Request request
     ){
+        String query = uriInfo.getRequestUri().getRawQuery();
+        Format format = Format.negotiate(request);
+        EntityTag tag = responseCache.collectionTag(Musica.class, "search:" + (query == null ? "" : query) + "|" + format);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if(notModified != null){
+            return notModified.build();
+        }
+
+
         Set<String> allowed = Set.of("id", "titulo", "letra", "anoLancamento", "nota", "duracaoSegundos");
-        if(!allowed.contains(sort)){
+
+        Cursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = Cursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity("Cursor inválido").build();
+            }
+            if (!allowed.contains(after.getSort())) {
+                return Response.status(Response.Status.BAD_REQUEST).entity("Cursor inválido").build();
+            }
+            sort = after.getSort();
+        } else if(!allowed.contains(sort)){
             sort = "id";
         }
 
-        Sort sortObj = Sort.by(
-                sort,
-                "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
-        );
+        boolean descending = after != null ? after.isDescending() : "desc".equalsIgnoreCase(direction);
+        String orderBy = Cursor.orderBy("m", sort, descending);
+        Set<String> selected = ProjectionQueries.fields(fields);
+        if (selected != null) {
+            selected.add(sort);
+        }
 
         int effectivePage = Math.max(page, 0);
+        int effectiveSize = Math.max(size, 1);
 
-        PanacheQuery<Musica> query;
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
 
-        if (q == null || q.isBlank()) {
-            query = Musica.findAll(sortObj);
-        } else {
+        String filterKey = "";
+        List<Long> indexed = null;
+        if (q != null && !q.isBlank()) {
             try {
-                int numero = Integer.parseInt(q);
-                query = Musica.find(
-                        "anoLancamento = ?1 or duracaoSegundos = ?1",
-                        sortObj,
-                        numero
-                );
+                int numero = Integer.parseInt(q.trim());
+                params.put("numero", numero);
+                conditions.add("(m.anoLancamento = :numero or m.duracaoSegundos = :numero)");
+                filterKey = "numero:" + numero;
             } catch (NumberFormatException e) {
-                query = Musica.find(
-                        "lower(titulo) like ?1",
-                        sortObj,
-                        "%" + q.toLowerCase() + "%"
-                );
+                if (searchIndex.supports(q)) {
+                    // Termos muito comuns ficam com as primeiras ocorrências em ordem de id (search.index.max-candidates)
+                    indexed = searchIndex.musicas(q);
+                    params.put("ids", indexed);
+                    conditions.add("m.id in :ids");
+                } else {
+                    // Termo curto demais para o índice de trigramas (menos de 3 caracteres):
+                    // substring na coluna normalizada, em que o LIMIT da página encontra as linhas cedo quando são muitas
+                    String termo = TextNormalizer.normalize(q.trim());
+                    params.put("termo", "%" + termo + "%");
+                    conditions.add("m.tituloBusca like :termo");
+                    filterKey = "contem:" + termo;
+                }
             }
         }
 
-        List<Musica> musicas = query.page(effectivePage, size).list();
+        String filter = String.join(" and ", conditions);
+        Map<String, Object> filterParams = new HashMap<>(params);
+
+        if (after != null) {
+            Object lastValue;
+            try {
+                lastValue = parseSortValue(sort, after.getValue());
+            } catch (RuntimeException e) {
+                return Response.status(Response.Status.BAD_REQUEST).entity("Cursor inválido").build();
+            }
+            conditions.add(after.seek("m", lastValue, params));
+        }
 
         var response = new SearchMusicaResponse();
+        // Busca size+1 linhas para saber se há próxima página sem precisar de COUNT
+        int first = after == null ? effectivePage * effectiveSize : 0;
+        List<MusicaView> musicas = queries.musicas(String.join(" and ", conditions), params, orderBy,
+                first, effectiveSize + 1, ProjectionQueries.expand(expand), selected);
+        response.HasMore = musicas.size() > effectiveSize;
+        if (response.HasMore) {
+            musicas = musicas.subList(0, effectiveSize);
+        }
         response.Musicas = musicas;
-        response.TotalMusicas = (int) query.count();
-        response.TotalPages = query.pageCount();
-        response.HasMore = effectivePage < query.pageCount() - 1;
 
-        response.NextPage = response.HasMore ? "http://localhost:8080/api/v1/musicas/search?q="+(q != null ? q : "")+"&page="+(effectivePage + 1) + (size > 0 ? "&size="+size : "") : "";
+        if (includeTotal) {
+            long total = indexed != null
+                    ? indexed.size()
+                    : countCache.get(Musica.class, filterKey,
+                            () -> queries.count("Musica", "m", filter, filterParams));
+            response.TotalMusicas = total;
+            response.TotalPages = (int) ((total + effectiveSize - 1) / effectiveSize);
+        }
+
+        response.NextCursor = "";
+        response.NextPage = "";
+        if (response.HasMore) {
+            MusicaView last = musicas.get(musicas.size() - 1);
+            response.NextCursor = Cursor.after(sort, descending, sortValue(last, sort), last.id).encode();
+            response.NextPage = after == null
+                    ? uriInfo.getRequestUriBuilder().replaceQueryParam("page", effectivePage + 1).build().toString()
+                    : uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", response.NextCursor).build().toString();
+        }
 
-        return Response.ok(response).build();
+        return Response.ok(response, format.mediaType())
+                .tag(tag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
     }
 
     @POST
@@ -199,37 +444,13 @@ public class MusicaResource {
     @Transactional
     @Idempotent
     public Response insert(@Valid Musica musica){
-
-        if(musica.artista != null && musica.artista.id != null){
-            Artista a = Artista.findById(musica.artista.id);
-            if(a == null){
-                return Response.status(Response.Status.BAD_REQUEST)
-                        .entity("Artista com id " + musica.artista.id + " não existe").build();
-            }
-            musica.artista = a;
-        } else {
-            musica.artista = null;
-        }
-
-        if(musica.generos != null && !musica.generos.isEmpty()){
-            Set<GeneroMusical> resolved = new HashSet<>();
-            for(GeneroMusical g : musica.generos){
-                if(g == null || g.id == 0){
-                    continue;
-                }
-                GeneroMusical fetched = GeneroMusical.findById(g.id);
-                if(fetched == null){
-                    return Response.status(Response.Status.BAD_REQUEST)
-                            .entity("Genero Musical com id " + g.id + " não existe").build();
-                }
-                resolved.add(fetched);
-            }
-            musica.generos = resolved;
-        } else {
-            musica.generos = new HashSet<>();
+        Response invalid = resolveReferences(musica, musica);
+        if(invalid != null){
+            return invalid;
         }
 
         Musica.persist(musica);
+        changes.fire(EntityChanged.created(Musica.class, musica.id, musica));
 
         URI location = UriBuilder.fromResource(MusicaResource.class).path("{id}").build(musica.id);
         return Response
@@ -238,6 +459,85 @@ public class MusicaResource {
                 .build();
     }
 
+    @POST
+    @Path("/batch")
+    @Operation(
+            summary = "Adiciona vários registros à lista de músicas (insertBatch)",
+            description = "Adiciona uma lista de músicas por meio de POST e request body JSON (array). As músicas são gravadas em blocos JDBC, numa única transação (ou todos ou nenhum), e os IDs gerados são retornados na ordem do envio. Artistas e gêneros referenciados são validados antes da gravação."
+    )
+    @Parameter(
+            name = "X-Idempotency-Key",
+            in = ParameterIn.HEADER,
+            required = true,
+            description = "Chave única para evitar duplicação. Se enviar a mesma chave, não grava de novo."
+    )
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    schema = @Schema(implementation = Musica.class, type = SchemaType.ARRAY)
+            )
+    )
+    @APIResponse(
+            responseCode = "201",
+            description = "Created - Retorna os IDs gerados, na ordem do envio.",
+            content = @Content(
+                    schema = @Schema(implementation = BatchInsertResponse.class))
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request"
+    )
+    @Idempotent
+    public Response insertBatch(@NotEmpty @Valid List<Musica> musicas){
+        // Valida todas as referências antes de gravar o primeiro bloco
+        Set<Long> artistaIds = new HashSet<>();
+        Set<Long> generoIds = new HashSet<>();
+        for(Musica musica : musicas){
+            if(musica.artista != null && musica.artista.id != null){
+                artistaIds.add(musica.artista.id);
+            }
+            if(musica.generos != null){
+                for(GeneroMusical g : musica.generos){
+                    if(g != null && g.id != null && g.id != 0){
+                        generoIds.add(g.id);
+                    }
+                }
+            }
+        }
+
+        Set<Long> artistasInexistentes = batchInserter.missing(Artista.class, artistaIds);
+        if(!artistasInexistentes.isEmpty()){
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Artistas com ids " + artistasInexistentes + " não existem").build();
+        }
+        Set<Long> generosInexistentes = batchInserter.missing(GeneroMusical.class, generoIds);
+        if(!generosInexistentes.isEmpty()){
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Generos Musicais com ids " + generosInexistentes + " não existem").build();
+        }
+
+        var response = new BatchInsertResponse();
+        response.Ids = batchInserter.insert(Musica.class, musicas, this::linkReferences, musica -> musica.id);
+        response.TotalInseridos = response.Ids.size();
+        return Response.status(Response.Status.CREATED).entity(response).build();
+    }
+
+    private void linkReferences(Musica musica){
+        musica.artista = musica.artista != null && musica.artista.id != null
+                ? batchInserter.reference(Artista.class, musica.artista.id)
+                : null;
+
+        Set<GeneroMusical> generos = new HashSet<>();
+        if(musica.generos != null){
+            for(GeneroMusical g : musica.generos){
+                if(g != null && g.id != null && g.id != 0){
+                    generos.add(batchInserter.reference(GeneroMusical.class, g.id));
+                }
+            }
+        }
+        musica.generos = generos;
+    }
+
     @DELETE
     @Operation(
             summary = "Remove um registro da lista de músicas (delete)",
@@ -253,16 +553,21 @@ public class MusicaResource {
     )
     @Transactional
     @Path("{id}")
-    public Response delete(@PathParam("id") long id){
+    public Response delete(@PathParam("id") long id, @Context Request request, @Context HttpHeaders headers){
         Musica entity = Musica.findById(id);
         if(entity == null){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
+        Response.ResponseBuilder failed = EntityTags.evaluateWrite(request, headers, EntityTags.of(entity));
+        if(failed != null){
+            return failed.build();
+        }
 
         entity.generos.clear();
         entity.persist();
 
         Musica.deleteById(id);
+        changes.fire(EntityChanged.deleted(Musica.class, id));
         return Response.noContent().build();
     }
 
@@ -290,44 +595,96 @@ public class MusicaResource {
     )
     @Transactional
     @Path("{id}")
-    public Response update(@PathParam("id") long id,@Valid Musica newMusica){
+    public Response update(@PathParam("id") long id,@Valid Musica newMusica, @Context Request request, @Context HttpHeaders headers){
         Musica entity = Musica.findById(id);
         if(entity == null){
             return Response.status(Response.Status.NOT_FOUND).build();
         }
+        Response.ResponseBuilder failed = EntityTags.evaluateWrite(request, headers, EntityTags.of(entity));
+        if(failed != null){
+            return failed.build();
+        }
+        Response invalid = resolveReferences(entity, newMusica);
+        if(invalid != null){
+            return invalid;
+        }
         entity.titulo = newMusica.titulo;
         entity.letra = newMusica.letra;
         entity.anoLancamento = newMusica.anoLancamento;
         entity.nota = newMusica.nota;
         entity.duracaoSegundos = newMusica.duracaoSegundos;
 
-        if(newMusica.artista != null && newMusica.artista.id != null){
-            Artista a = Artista.findById(newMusica.artista.id);
-            if(a == null){
+        // Aplica a alteração já aqui para que a ETag retornada reflita a nova versão
+        Musica.flush();
+        changes.fire(EntityChanged.updated(Musica.class, id, entity));
+        // ETag no formato negociado, a mesma que um GET nesse formato retornaria
+        Format format = Format.negotiate(request);
+        return Response.ok(entity, format.mediaType())
+                .tag(format.tag(EntityTags.of(entity)))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    /**
+     * Liga a {@code target} o artista e os gêneros referenciados por id em {@code source}, com no
+     * máximo uma consulta por tipo. Os gêneros vêm do cache de segundo nível quando já estão nele.
+     * Só altera {@code target} se todas as referências existirem; caso contrário retorna o 400.
+     */
+    private Response resolveReferences(Musica target, Musica source){
+        Artista artista = null;
+        if(source.artista != null && source.artista.id != null){
+            artista = Artista.findById(source.artista.id);
+            if(artista == null){
                 return Response.status(Response.Status.BAD_REQUEST)
-                        .entity("Artista com id " + newMusica.artista.id + " não existe").build();
+                        .entity("Artista com id " + source.artista.id + " não existe").build();
             }
-            entity.artista = a;
-        } else {
-            entity.artista = null;
         }
 
-        if(newMusica.generos != null){
-            Set<GeneroMusical> resolved = new HashSet<>();
-            for(GeneroMusical g : newMusica.generos){
-                if(g == null || g.id == 0) continue;
-                GeneroMusical fetched = GeneroMusical.findById(g.id);
-                if(fetched == null){
+        List<Long> generoIds = new ArrayList<>();
+        if(source.generos != null){
+            for(GeneroMusical g : source.generos){
+                if(g != null && g.id != null && g.id != 0 && !generoIds.contains(g.id)){
+                    generoIds.add(g.id);
+                }
+            }
+        }
+        Set<GeneroMusical> generos = new HashSet<>();
+        if(!generoIds.isEmpty()){
+            List<GeneroMusical> found = session.byMultipleIds(GeneroMusical.class).multiLoad(generoIds);
+            for(int i = 0; i < generoIds.size(); i++){
+                if(found.get(i) == null){
                     return Response.status(Response.Status.BAD_REQUEST)
-                            .entity("Genero Musical com id " + g.id + " não existe").build();
+                            .entity("Genero Musical com id " + generoIds.get(i) + " não existe").build();
                 }
-                resolved.add(fetched);
+                generos.add(found.get(i));
             }
-            entity.generos = resolved;
-        } else {
-            entity.generos = new HashSet<>();
         }
 
-        return Response.status(Response.Status.OK).entity(entity).build();
+        target.artista = artista;
+        target.generos = generos;
+        return null;
+    }
+
+    private static Object sortValue(MusicaView musica, String sort) {
+        return switch (sort) {
+            case "titulo" -> musica.titulo;
+            case "letra" -> musica.letra;
+            case "anoLancamento" -> musica.anoLancamento;
+            case "nota" -> musica.nota;
+            case "duracaoSegundos" -> musica.duracaoSegundos;
+            default -> musica.id;
+        };
+    }
+
+    private static Object parseSortValue(String sort, String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (sort) {
+            case "anoLancamento", "duracaoSegundos" -> Integer.valueOf(value);
+            case "nota" -> Double.valueOf(value);
+            case "id" -> Long.valueOf(value);
+            default -> value;
+        };
     }
 }
\ No newline at end of file
@@ -3,16 +3,23 @@ package org.acme;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.validation.constraints.Size;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 
 @Entity
 public class PerfilArtista extends PanacheEntityBase {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "perfil_artista_seq")
+    @SequenceGenerator(name = "perfil_artista_seq", sequenceName = "perfil_artista_seq", allocationSize = 50)
     @Schema(readOnly = true)
     public Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    public long versao;
+
     @Size(max = 2000, message = "A descrição da carreira não pode ultrapassar 2000 caracteres")
     @Column(length = 2000)
     public String descricaoCarreira;
@@ -1,71 +1,98 @@
 package org.acme;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import jakarta.annotation.Priority;
-import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.ws.rs.Priorities;
+import io.quarkus.arc.Arc;
+import io.vertx.core.http.HttpServerRequest;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
 import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.Provider;
+import org.acme.ratelimit.RateLimiter;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
 
-@Provider
-@ApplicationScoped
-@Priority(Priorities.HEADER_DECORATOR)
+/**
+ * Filtro de limite de requisições de um método de resource. Não é um {@code @Provider}: o
+ * {@link FilterBindings} cria uma instância por método coberto por alguma rota, já com o nome da rota
+ * resolvido; o limitador e a rota são obtidos do CDI no primeiro uso.
+ */
 public class RateLimitingFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
-    private static final int MAX_REQUESTS = 10;
-    private static final int WINDOW_SECONDS = 60;
+    private static final String REMAINING_PROPERTY = "rate-limit-remaining";
 
-    private final Cache<String, AtomicInteger> requestCounts;
+    private final String routeName;
 
-    public RateLimitingFilter() {
-        this.requestCounts = Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofSeconds(WINDOW_SECONDS))
-                .build();
+    private volatile RateLimiter limiter;
+    private volatile RateLimiter.Route route;
+    private volatile HttpServerRequest request;
+
+    public RateLimitingFilter(String routeName) {
+        this.routeName = routeName;
+    }
+
+    // Para uso fora do CDI, como nos benchmarks
+    RateLimitingFilter(RateLimiter limiter, RateLimiter.Route route) {
+        this.routeName = null;
+        this.limiter = limiter;
+        this.route = route;
     }
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
-        String path = requestContext.getUriInfo().getPath();
-        if (!path.startsWith("/api/v1")) {
-            return;
-        }
-
-        String clientIp = requestContext.getHeaderString("X-Forwarded-For");
-        if (clientIp == null) {
-            clientIp = "127.0.0.1";
-        }
-
-        AtomicInteger count = requestCounts.get(clientIp, k -> new AtomicInteger(0));
-        int currentCount = count.incrementAndGet();
+        HttpServerRequest request = request();
+        filter(requestContext, request.getHeader("X-Forwarded-For"), request.remoteAddress().hostAddress(), request.query());
+    }
 
-        requestContext.setProperty("rate-limit-remaining", Math.max(0, MAX_REQUESTS - currentCount));
+    // Os dados da requisição Vert.x vêm como argumentos, para que os benchmarks não precisem de uma
+    void filter(ContainerRequestContext requestContext, String forwardedFor, String remoteAddress, String query) {
+        RateLimiter.Route route = route();
+        String client = limiter.clientKey(forwardedFor, remoteAddress);
+        int cost = route.cost(query);
+        long remaining = route.acquire(client, cost);
 
-        if (currentCount > MAX_REQUESTS) {
+        if (remaining < 0) {
+            route.rejected();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(-remaining + TimeUnit.SECONDS.toNanos(1) - 1));
             requestContext.abortWith(Response.status(429)
                     .entity("Limite de requisições excedido. Tente novamente em breve.")
-                    .header("X-RateLimit-Limit", MAX_REQUESTS)
+                    .header("X-RateLimit-Limit", route.getLimit())
                     .header("X-RateLimit-Remaining", 0)
-                    .header("Retry-After", WINDOW_SECONDS)
+                    .header("Retry-After", retryAfter)
                     .build());
+            return;
         }
+
+        requestContext.setProperty(REMAINING_PROPERTY, remaining);
     }
 
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
-        Object remaining = requestContext.getProperty("rate-limit-remaining");
+        Object remaining = requestContext.getProperty(REMAINING_PROPERTY);
 
         if (remaining != null) {
-            responseContext.getHeaders().add("X-RateLimit-Limit", MAX_REQUESTS);
+            responseContext.getHeaders().add("X-RateLimit-Limit", route().getLimit());
             responseContext.getHeaders().add("X-RateLimit-Remaining", remaining);
         }
     }
+
+    private RateLimiter.Route route() {
+        RateLimiter.Route current = route;
+        if (current == null) {
+            limiter = Arc.container().instance(RateLimiter.class).get();
+            current = limiter.route(routeName);
+            route = current;
+        }
+        return current;
+    }
+
+    // Proxy do bean de escopo de requisição, obtido no primeiro uso
+    private HttpServerRequest request() {
+        HttpServerRequest current = request;
+        if (current == null) {
+            current = Arc.container().instance(HttpServerRequest.class).get();
+            request = current;
+        }
+        return current;
+    }
 }
\ No newline at end of file
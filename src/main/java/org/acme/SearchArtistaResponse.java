@@ -1,12 +1,15 @@
 package org.acme;
 
+import org.acme.projection.ArtistaView;
+
 import java.util.ArrayList;
 import java.util.List;
 
 public class SearchArtistaResponse {
-    public List<Artista> Artistas = new ArrayList<>();
+    public List<ArtistaView> Artistas = new ArrayList<>();
     public long TotalArtistas;
     public int TotalPages;
     public boolean HasMore;
     public String NextPage;
+    public String NextCursor;
 }
\ No newline at end of file
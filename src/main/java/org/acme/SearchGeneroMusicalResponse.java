@@ -1,12 +1,15 @@
 package org.acme;
 
+import org.acme.projection.GeneroMusicalView;
+
 import java.util.ArrayList;
 import java.util.List;
 
 public class SearchGeneroMusicalResponse {
-    public List<GeneroMusical> GenerosMusicais = new ArrayList<>();
+    public List<GeneroMusicalView> GenerosMusicais = new ArrayList<>();
     public long TotalGenerosMusicais;
     public int TotalPages;
     public boolean HasMore;
     public String NextPage;
+    public String NextCursor;
 }
\ No newline at end of file
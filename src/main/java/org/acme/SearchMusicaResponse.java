@@ -1,12 +1,15 @@
 package org.acme;
 
+import org.acme.projection.MusicaView;
+
 import java.util.ArrayList;
 import java.util.List;
 
 public class SearchMusicaResponse {
-    public List<Musica> Musicas = new ArrayList<>();
+    public List<MusicaView> Musicas = new ArrayList<>();
     public long TotalMusicas;
     public int TotalPages;
     public boolean HasMore;
     public String NextPage;
+    public String NextCursor;
 }
\ No newline at end of file
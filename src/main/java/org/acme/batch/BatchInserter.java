@@ -0,0 +1,86 @@
+package org.acme.batch;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.acme.events.EntitiesCreated;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Persiste listas grandes numa única transação, em blocos de tamanho fixo. Cada bloco é enviado
+ * com os inserts agrupados em lotes JDBC e depois retirado do contexto de persistência, que fica
+ * limitado ao tamanho do bloco. Como a lista inteira é confirmada de uma vez, uma falha não deixa
+ * blocos gravados para trás, e a resposta registrada pela idempotência vale para o lote todo.
+ */
+@ApplicationScoped
+public class BatchInserter {
+
+    @ConfigProperty(name = "batch-insert.chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    @Inject
+    Session session;
+
+    @Inject
+    Event<EntitiesCreated> changes;
+
+    /**
+     * Retorna os ids de {@code ids} que não existem na entidade {@code type}, com uma única consulta.
+     */
+    public Set<Long> missing(Class<?> type, Collection<Long> ids) {
+        Set<Long> missing = new HashSet<>(ids);
+        if (missing.isEmpty()) {
+            return missing;
+        }
+        missing.removeAll(session.createSelectionQuery(
+                        "select e.id from " + type.getSimpleName() + " e where e.id in :ids", Long.class)
+                .setParameterList("ids", ids)
+                .getResultList());
+        return missing;
+    }
+
+    /**
+     * Referência sem select para uma entidade cuja existência já foi verificada.
+     */
+    public <R> R reference(Class<R> type, Long id) {
+        return session.getReference(type, id);
+    }
+
+    /**
+     * Insere {@code entities} numa única transação, em blocos de {@code batch-insert.chunk-size}.
+     * {@code prepare} é chamado antes do persist, para ligar as associações. Retorna os ids
+     * gerados, na ordem da entrada.
+     */
+    public <T> List<Long> insert(Class<T> type, List<T> entities, Consumer<T> prepare, Function<T, Long> id) {
+        List<Long> ids = new ArrayList<>(entities.size());
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int from = 0; from < entities.size(); from += chunkSize) {
+                List<T> chunk = entities.subList(from, Math.min(from + chunkSize, entities.size()));
+                for (T entity : chunk) {
+                    prepare.accept(entity);
+                    session.persist(entity);
+                }
+                session.flush();
+                // Um evento por bloco, só com os ids: ele fica retido até o commit, e as entidades não
+                long[] created = new long[chunk.size()];
+                for (int i = 0; i < created.length; i++) {
+                    created[i] = id.apply(chunk.get(i));
+                    ids.add(created[i]);
+                }
+                changes.fire(new EntitiesCreated(type, created));
+                session.clear();
+            }
+        });
+        return ids;
+    }
+}
@@ -0,0 +1,48 @@
+package org.acme.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Corpo em cache embutido numa resposta maior sem ser desserializado. Em JSON os bytes entram
+ * como valor bruto; nos formatos binários, que não aceitam valor bruto, os tokens são copiados
+ * um a um do corpo para a saída, sem montar uma árvore.
+ */
+public class CachedBody implements JsonSerializable {
+
+    private final byte[] body;
+    private final JsonFactory factory;
+
+    /**
+     * @param factory fábrica do formato em que {@code body} foi serializado, o mesmo da resposta
+     */
+    public CachedBody(byte[] body, JsonFactory factory) {
+        this.body = body;
+        this.factory = factory;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (!generator.canWriteBinaryNatively()) {
+            generator.writeRawValue(new String(body, StandardCharsets.UTF_8));
+            return;
+        }
+        try (JsonParser parser = factory.createParser(body)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, provider);
+    }
+}
@@ -0,0 +1,32 @@
+package org.acme.cache;
+
+import jakarta.ws.rs.core.EntityTag;
+
+/**
+ * Corpo de resposta já serializado, pronto para ser copiado na saída, com a ETag
+ * correspondente e, para corpos grandes, a versão já comprimida com gzip.
+ */
+public class CachedResponse {
+
+    private final byte[] body;
+    private final byte[] gzip;
+    private final EntityTag etag;
+
+    public CachedResponse(byte[] body, EntityTag etag) {
+        this(body, null, etag);
+    }
+
+    public CachedResponse(byte[] body, byte[] gzip, EntityTag etag) {
+        this.body = body;
+        this.gzip = gzip;
+        this.etag = etag;
+    }
+
+    public byte[] getBody() { return body; }
+    public byte[] getGzip() { return gzip; }
+    public EntityTag getEtag() { return etag; }
+
+    int weight() {
+        return body.length + (gzip == null ? 0 : gzip.length);
+    }
+}
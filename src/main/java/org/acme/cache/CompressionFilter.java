@@ -0,0 +1,118 @@
+package org.acme.cache;
+
+import io.quarkus.vertx.http.runtime.filters.Filters;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.ws.rs.core.HttpHeaders;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ajusta as respostas à compressão do servidor HTTP ({@code quarkus.http.enable-compression}):
+ * <ul>
+ *     <li>corpos menores que {@code response-cache.gzip.min-bytes} saem sem compressão, o mesmo limite do cache de respostas;</li>
+ *     <li>respostas que podem sair comprimidas levam {@code Accept-Encoding} no Vary;</li>
+ *     <li>a representação comprimida tem ETag própria, com o sufixo {@value #GZIP_SUFFIX}, já que os bytes
+ *     diferem dos da representação sem compressão.</li>
+ * </ul>
+ * Os resources comparam as pré-condições com a ETag sem compressão: o sufixo é retirado do If-Match e do
+ * If-None-Match antes de chegarem a eles e devolvido no 304. O servidor só usa gzip ({@code quarkus.http.compressors}),
+ * então o Accept-Encoding basta para saber se a resposta será comprimida.
+ */
+@ApplicationScoped
+public class CompressionFilter {
+
+    public static final String GZIP_SUFFIX = "-gzip";
+
+    private static final String IDENTITY = "identity";
+    private static final String STRIPPED = CompressionFilter.class.getName() + ".stripped";
+
+    @ConfigProperty(name = "response-cache.gzip.min-bytes", defaultValue = "1024")
+    int minBytes;
+
+    @ConfigProperty(name = "quarkus.http.compress-media-types")
+    List<String> mediaTypes;
+
+    void register(@Observes Filters filters) {
+        filters.register(this::handle, 100);
+    }
+
+    void handle(RoutingContext context) {
+        boolean gzip = ResponseCache.acceptsGzip(context.request().getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (gzip) {
+            MultiMap headers = context.request().headers();
+            if (strip(headers, HttpHeaders.IF_NONE_MATCH) | strip(headers, HttpHeaders.IF_MATCH)) {
+                context.put(STRIPPED, Boolean.TRUE);
+            }
+        }
+        context.addHeadersEndHandler(v -> onHeaders(context, gzip));
+        context.next();
+    }
+
+    private void onHeaders(RoutingContext context, boolean gzip) {
+        HttpServerResponse response = context.response();
+        MultiMap headers = response.headers();
+        if (response.getStatusCode() == 304) {
+            // O cliente validou a representação comprimida: o 304 confirma a mesma ETag que ele tem
+            if (context.get(STRIPPED) != null) {
+                suffix(headers);
+            }
+            return;
+        }
+        if (headers.contains(HttpHeaders.CONTENT_ENCODING) || !compressible(headers.get(HttpHeaders.CONTENT_TYPE))) {
+            return;
+        }
+        String length = headers.get(HttpHeaders.CONTENT_LENGTH);
+        if (length != null && Long.parseLong(length) < minBytes) {
+            // Com Content-Encoding identity o servidor não comprime e retira o cabeçalho da resposta
+            headers.set(HttpHeaders.CONTENT_ENCODING, IDENTITY);
+            return;
+        }
+        vary(headers);
+        if (gzip) {
+            suffix(headers);
+        }
+    }
+
+    private boolean compressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int end = contentType.indexOf(';');
+        String type = (end < 0 ? contentType : contentType.substring(0, end)).trim().toLowerCase(Locale.ROOT);
+        return mediaTypes.contains(type);
+    }
+
+    static void vary(MultiMap headers) {
+        String vary = headers.get(HttpHeaders.VARY);
+        if (vary == null || vary.isBlank()) {
+            headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        } else if (!vary.toLowerCase(Locale.ROOT).contains("accept-encoding")) {
+            headers.set(HttpHeaders.VARY, vary + ", " + HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    private static void suffix(MultiMap headers) {
+        String etag = headers.get(HttpHeaders.ETAG);
+        if (etag != null && etag.endsWith("\"") && !etag.endsWith(GZIP_SUFFIX + "\"")) {
+            headers.set(HttpHeaders.ETAG, etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"");
+        }
+    }
+
+    /**
+     * Retira o sufixo de compressão das ETags do cabeçalho; retorna se alguma tinha o sufixo.
+     */
+    static boolean strip(MultiMap headers, String name) {
+        String value = headers.get(name);
+        if (value == null || !value.contains(GZIP_SUFFIX + "\"")) {
+            return false;
+        }
+        headers.set(name, value.replace(GZIP_SUFFIX + "\"", "\""));
+        return true;
+    }
+}
@@ -0,0 +1,153 @@
+package org.acme.cache;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.acme.Artista;
+import org.acme.GeneroMusical;
+import org.acme.Musica;
+import org.acme.format.Format;
+import org.hibernate.Session;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ETags fortes derivadas das colunas {@code @Version}. A ETag de uma entidade combina
+ * as versões de tudo o que aparece na sua representação JSON, e pode ser calculada tanto
+ * a partir da entidade carregada quanto por uma consulta só de versões, sem carregá-la.
+ */
+@ApplicationScoped
+public class EntityTags {
+
+    // Distingue as versões de coleção (contadores em memória) entre instâncias e reinícios
+    private static final String INSTANCE = UUID.randomUUID().toString().substring(0, 8);
+
+    @Inject
+    Session session;
+
+    public static EntityTag of(Musica musica) {
+        long generos = 0;
+        for (GeneroMusical genero : musica.generos) {
+            generos += genero.versao;
+        }
+        Artista artista = musica.artista;
+        return tag(musica.versao,
+                artista == null ? 0 : artista.versao,
+                artista == null || artista.perfil == null ? 0 : artista.perfil.versao,
+                generos);
+    }
+
+    public static EntityTag of(Artista artista) {
+        return tag(artista.versao, artista.perfil == null ? 0 : artista.perfil.versao);
+    }
+
+    public static EntityTag of(GeneroMusical genero) {
+        return tag(genero.versao);
+    }
+
+    /**
+     * ETag de uma coleção em cache: a geração local do tipo e a janela de tempo em que foi carregada.
+     */
+    public static EntityTag collection(String name, long generation, long window, String variant) {
+        return new EntityTag(name + "-" + INSTANCE + "-" + generation + "-" + Long.toHexString(window)
+                + "-" + Integer.toHexString(variant.hashCode()));
+    }
+
+    /**
+     * ETag de uma resposta com vários itens: muda quando qualquer um deles muda ou deixa de existir.
+     */
+    public static EntityTag combined(String name, List<Long> ids, List<EntityTag> tags) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < ids.size(); i++) {
+            EntityTag tag = tags.get(i);
+            value.append(ids.get(i)).append('=').append(tag == null ? "" : tag.getValue()).append(',');
+        }
+        return new EntityTag(name + "-" + ids.size() + "-" + Integer.toHexString(value.toString().hashCode()));
+    }
+
+    /**
+     * ETag de uma representação parcial (por exemplo com {@code fields=}) da mesma entidade.
+     */
+    public static EntityTag variant(EntityTag tag, String variant) {
+        return variant.isEmpty() ? tag : new EntityTag(tag.getValue() + "-" + Integer.toHexString(variant.hashCode()));
+    }
+
+    /**
+     * Avalia as pré-condições de uma escrita. O If-Match é comparado só com a versão da entidade:
+     * vale a ETag de qualquer representação dela ({@link Format#tag}), já que o cliente devolve a
+     * que recebeu no GET no formato que negociou. Sem If-Match, vale a avaliação padrão do JAX-RS.
+     */
+    public static Response.ResponseBuilder evaluateWrite(Request request, HttpHeaders headers, EntityTag tag) {
+        List<String> ifMatch = headers.getRequestHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch == null || ifMatch.isEmpty()) {
+            return request.evaluatePreconditions(tag);
+        }
+        for (String header : ifMatch) {
+            for (String candidate : header.split(",")) {
+                String value = candidate.trim();
+                if (value.equals("*")) {
+                    return null;
+                }
+                // If-Match usa comparação forte: ETags fracas nunca casam
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+                        && Format.untag(value.substring(1, value.length() - 1)).equals(tag.getValue())) {
+                    return null;
+                }
+            }
+        }
+        return Response.status(Response.Status.PRECONDITION_FAILED).tag(tag);
+    }
+
+    public EntityTag musica(long id) {
+        return first(session.createSelectionQuery(
+                        "select m.versao, coalesce(a.versao, 0), coalesce(p.versao, 0),"
+                                + " (select coalesce(sum(g.versao), 0) from Musica m2 join m2.generos g where m2.id = m.id)"
+                                + " from Musica m left join m.artista a left join a.perfil p where m.id = :id",
+                        Object[].class)
+                .setParameter("id", id)
+                .getResultList());
+    }
+
+    public EntityTag artista(long id) {
+        return first(session.createSelectionQuery(
+                        "select a.versao, coalesce(p.versao, 0) from Artista a left join a.perfil p where a.id = :id",
+                        Object[].class)
+                .setParameter("id", id)
+                .getResultList());
+    }
+
+    public EntityTag genero(long id) {
+        return first(session.createSelectionQuery(
+                        "select g.versao from GeneroMusical g where g.id = :id",
+                        Object[].class)
+                .setParameter("id", id)
+                .getResultList());
+    }
+
+    private static EntityTag first(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        long[] parts = new long[row.length];
+        for (int i = 0; i < row.length; i++) {
+            parts[i] = ((Number) row[i]).longValue();
+        }
+        return tag(parts);
+    }
+
+    private static EntityTag tag(long... parts) {
+        StringBuilder value = new StringBuilder();
+        for (long part : parts) {
+            if (value.length() > 0) {
+                value.append('-');
+            }
+            value.append(part);
+        }
+        return new EntityTag(value.toString());
+    }
+}
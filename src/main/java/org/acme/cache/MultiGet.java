@@ -0,0 +1,84 @@
+package org.acme.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.acme.MultiGetItem;
+import org.acme.format.Format;
+import org.acme.format.FormatMappers;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Busca por vários ids ({@code ?ids=1,2,3}) numa só requisição. Cada item sai com a mesma
+ * representação do getById, vindo do cache de respostas quando possível; os que faltam são
+ * carregados juntos, numa única consulta {@code in}. Os bytes de cada item, do cache ou recém
+ * serializados, são embutidos na resposta como estão.
+ */
+@ApplicationScoped
+public class MultiGet {
+
+    @ConfigProperty(name = "multi-get.max-ids", defaultValue = "100")
+    int maxIds;
+
+    @Inject
+    ResponseCache responseCache;
+
+    @Inject
+    FormatMappers mappers;
+
+    public <T> Response get(Class<T> type, String rawIds, Request request,
+                            Function<Collection<Long>, List<T>> loader,
+                            Function<T, Long> idOf, Function<T, EntityTag> tagger) {
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (String part : rawIds.split(",")) {
+                if (!part.isBlank()) {
+                    ids.add(Long.parseLong(part.trim()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Lista de ids inválida").build();
+        }
+        if (ids.isEmpty() || ids.size() > maxIds) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Informe entre 1 e " + maxIds + " ids")
+                    .build();
+        }
+
+        Format format = Format.negotiate(request);
+        Map<Long, CachedResponse> found = responseCache.byIds(type, ids, format, loader, idOf, tagger);
+
+        List<EntityTag> tags = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            CachedResponse cached = found.get(id);
+            tags.add(cached == null ? null : cached.getEtag());
+        }
+        EntityTag tag = EntityTags.combined(type.getSimpleName(), ids, tags);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+
+        // Os corpos em cache já estão no formato negociado e entram na resposta sem nova consulta nem nova serialização
+        JsonFactory factory = mappers.of(format).getFactory();
+        List<MultiGetItem> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            CachedResponse cached = found.get(id);
+            items.add(new MultiGetItem(id, cached == null ? null : new CachedBody(cached.getBody(), factory)));
+        }
+        return Response.ok(items, format.mediaType())
+                .tag(tag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
+}
\ No newline at end of file
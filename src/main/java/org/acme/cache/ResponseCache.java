@@ -0,0 +1,321 @@
+package org.acme.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.acme.Artista;
+import org.acme.GeneroMusical;
+import org.acme.Musica;
+import org.acme.events.EntitiesCreated;
+import org.acme.events.EntityChanged;
+import org.acme.format.Format;
+import org.acme.format.FormatMappers;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache das respostas já serializadas de getById (por id) e de getAll (por coleção).
+ * As entradas são invalidadas após o commit das escritas: uma alteração em Artista ou
+ * GeneroMusical também invalida as músicas, que embutem esses dados no JSON.
+ * Escritas feitas em outras réplicas não chegam a este observador, então toda entrada também expira
+ * {@code response-cache.expire-after-write} depois de carregada.
+ * Cada formato negociado (JSON, CBOR, Smile) tem suas próprias entradas e ETags. Corpos a partir
+ * de {@code response-cache.gzip.min-bytes} são guardados também comprimidos, para que o gzip
+ * seja feito uma vez por entrada e não a cada resposta. As demais respostas passam pelo {@link CompressionFilter}.
+ */
+@ApplicationScoped
+public class ResponseCache {
+
+    @Inject
+    FormatMappers mappers;
+
+    @ConfigProperty(name = "response-cache.entities.max-bytes", defaultValue = "67108864")
+    long entitiesMaxBytes;
+
+    @ConfigProperty(name = "response-cache.collections.max-bytes", defaultValue = "33554432")
+    long collectionsMaxBytes;
+
+    @ConfigProperty(name = "response-cache.gzip.min-bytes", defaultValue = "1024")
+    int gzipMinBytes;
+
+    @ConfigProperty(name = "response-cache.expire-after-write", defaultValue = "1m")
+    Duration expireAfterWrite;
+
+    @Inject
+    HttpServerRequest request;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<Class<?>, Entries> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Retorna a entidade serializada, carregando-a com {@code loader} em caso de miss.
+     * {@code current} é a ETag lida do banco pela consulta das versões: uma entrada com outra ETag
+     * ficou para trás de uma escrita (por exemplo, feita em outra réplica) e é recarregada.
+     * Retorna null quando o loader não encontra a entidade.
+     */
+    public <T> CachedResponse byId(Class<T> type, long id, Format format, EntityTag current,
+                                   Supplier<T> loader, Function<T, EntityTag> tagger) {
+        Entries cache = entriesFor(type);
+        IdKey key = new IdKey(id, format);
+        CachedResponse cached = cache.byId.getIfPresent(key);
+        if (cached != null) {
+            if (cached.getEtag().equals(current)) {
+                return cached;
+            }
+            cache.byId.asMap().remove(key, cached);
+        }
+
+        long generation = cache.generation.get();
+        T entity = loader.get();
+        if (entity == null) {
+            return null;
+        }
+        CachedResponse response = cached(serialize(entity, format), format.tag(tagger.apply(entity)));
+        cache.putIfCurrent(cache.byId, key, response, generation);
+        return response;
+    }
+
+    /**
+     * Várias entidades serializadas por id: as que estão em cache são usadas como estão e as
+     * demais são carregadas numa única chamada a {@code loader}. Ids inexistentes ficam fora do mapa.
+     */
+    public <T> Map<Long, CachedResponse> byIds(Class<T> type, Collection<Long> ids, Format format,
+                                               Function<Collection<Long>, List<T>> loader,
+                                               Function<T, Long> idOf, Function<T, EntityTag> tagger) {
+        Entries cache = entriesFor(type);
+        Map<Long, CachedResponse> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            CachedResponse cached = cache.byId.getIfPresent(new IdKey(id, format));
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long generation = cache.generation.get();
+        for (T entity : loader.apply(missing)) {
+            long id = idOf.apply(entity);
+            CachedResponse response = cached(serialize(entity, format), format.tag(tagger.apply(entity)));
+            cache.putIfCurrent(cache.byId, new IdKey(id, format), response, generation);
+            found.put(id, response);
+        }
+        return found;
+    }
+
+    /**
+     * Versão atual da coleção do tipo: muda a cada escrita confirmada nesta réplica que afeta sua
+     * representação e, no máximo, a cada {@code response-cache.expire-after-write}. As escritas das
+     * outras réplicas não mudam a geração local; a janela de tempo na ETag impede que um 304 as esconda
+     * por mais tempo do que o cache guardaria a coleção.
+     */
+    public EntityTag collectionTag(Class<?> type, String key) {
+        return collectionTag(type, entriesFor(type).generation.get(), key);
+    }
+
+    private EntityTag collectionTag(Class<?> type, long generation, String key) {
+        long window = System.currentTimeMillis() / expireAfterWrite.toMillis();
+        return EntityTags.collection(type.getSimpleName(), generation, window, key);
+    }
+
+    /**
+     * Coleção serializada no formato dado; {@code key} deve distinguir o formato, assim como
+     * a chave passada a {@link #collectionTag}.
+     */
+    public CachedResponse collection(Class<?> type, String key, Format format, Supplier<Object> loader) {
+        Entries cache = entriesFor(type);
+        long generation = cache.generation.get();
+        EntityTag current = collectionTag(type, generation, key);
+        CachedResponse cached = cache.collections.getIfPresent(key);
+        if (cached != null) {
+            if (cached.getEtag().equals(current)) {
+                return cached;
+            }
+            // Carregada numa janela anterior: a ETag que o cliente recebe deve ser a atual
+            cache.collections.asMap().remove(key, cached);
+        }
+
+        CachedResponse response = cached(serialize(loader.get(), format), current);
+        cache.putIfCurrent(cache.collections, key, response, generation);
+        return response;
+    }
+
+    /**
+     * Resposta 200 com o corpo em cache, já comprimido quando o cliente aceita gzip; a versão comprimida
+     * tem ETag própria ({@link CompressionFilter#GZIP_SUFFIX}). Com o Content-Encoding sempre definido,
+     * a compressão do servidor HTTP não é aplicada de novo.
+     */
+    public Response.ResponseBuilder ok(CachedResponse cached, Format format) {
+        Response.ResponseBuilder response = Response.ok()
+                .type(format.mediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        EntityTag tag = cached.getEtag();
+        if (cached.getGzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.entity(cached.getGzip())
+                    .tag(new EntityTag(tag.getValue() + CompressionFilter.GZIP_SUFFIX, tag.isWeak()))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        // identity: o servidor HTTP não comprime e retira o cabeçalho da resposta
+        return response.entity(cached.getBody()).tag(tag).header(HttpHeaders.CONTENT_ENCODING, "identity");
+    }
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChanged event) {
+        invalidate(event.getType(), event.getId());
+    }
+
+    void onCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntitiesCreated event) {
+        invalidate(event.getType(), event.getIds());
+    }
+
+    private void invalidate(Class<?> type, long... ids) {
+        Entries cache = entries.get(type);
+        if (cache != null) {
+            cache.generation.incrementAndGet();
+            for (long id : ids) {
+                for (Format format : Format.values()) {
+                    cache.byId.invalidate(new IdKey(id, format));
+                }
+            }
+            cache.collections.invalidateAll();
+        }
+
+        if (type == Artista.class || type == GeneroMusical.class) {
+            Entries musicas = entries.get(Musica.class);
+            if (musicas != null) {
+                musicas.generation.incrementAndGet();
+                musicas.byId.invalidateAll();
+                musicas.collections.invalidateAll();
+            }
+        }
+    }
+
+    private Entries entriesFor(Class<?> type) {
+        return entries.computeIfAbsent(type, k -> new Entries(k.getSimpleName(), entitiesMaxBytes, collectionsMaxBytes, expireAfterWrite, registry));
+    }
+
+    private CachedResponse cached(byte[] body, EntityTag tag) {
+        if (body.length < gzipMinBytes) {
+            return new CachedResponse(body, tag);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Só vale guardar se de fato ficou menor
+        return compressed.size() < body.length
+                ? new CachedResponse(body, compressed.toByteArray(), tag)
+                : new CachedResponse(body, tag);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=") && isZero(param.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private byte[] serialize(Object value, Format format) {
+        try {
+            return mappers.of(format).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record IdKey(long id, Format format) {
+    }
+
+    private static class Entries {
+        private final AtomicLong generation = new AtomicLong();
+        private final Cache<IdKey, CachedResponse> byId;
+        private final Cache<String, CachedResponse> collections;
+
+        Entries(String type, long entitiesMaxBytes, long collectionsMaxBytes, Duration expireAfterWrite, MeterRegistry registry) {
+            this.byId = Caffeine.newBuilder()
+                    .maximumWeight(entitiesMaxBytes)
+                    .<IdKey, CachedResponse>weigher((k, v) -> v.weight())
+                    .expireAfterWrite(expireAfterWrite)
+                    .recordStats()
+                    .build();
+            this.collections = Caffeine.newBuilder()
+                    .maximumWeight(collectionsMaxBytes)
+                    .<String, CachedResponse>weigher((k, v) -> v.weight())
+                    .expireAfterWrite(expireAfterWrite)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(registry, byId, "response-cache.by-id", Tags.of("type", type));
+            CaffeineCacheMetrics.monitor(registry, collections, "response-cache.collections", Tags.of("type", type));
+        }
+
+        /**
+         * Só guarda o valor se nenhuma escrita foi confirmada durante o carregamento;
+         * a segunda verificação cobre uma invalidação que ocorra entre o teste e o put.
+         */
+        <K> void putIfCurrent(Cache<K, CachedResponse> cache, K key, CachedResponse value, long loadedAt) {
+            if (generation.get() != loadedAt) {
+                return;
+            }
+            cache.put(key, value);
+            if (generation.get() != loadedAt) {
+                cache.invalidate(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.acme.events;
+
+/**
+ * Evento disparado pelas inserções em lote, um por bloco gravado. Leva só os ids, e não as entidades:
+ * os observadores ({@code TransactionPhase.AFTER_SUCCESS}) só o recebem após o commit, e um evento por
+ * entidade manteria o lote inteiro em memória até lá. Quem precisa dos dados os lê de novo pelos ids.
+ */
+public class EntitiesCreated {
+
+    private final Class<?> type;
+    private final long[] ids;
+
+    public EntitiesCreated(Class<?> type, long[] ids) {
+        this.type = type;
+        this.ids = ids;
+    }
+
+    public Class<?> getType() { return type; }
+    public long[] getIds() { return ids; }
+}
@@ -0,0 +1,39 @@
+package org.acme.events;
+
+/**
+ * Evento disparado pelos métodos de escrita dos resources (insert, update e delete).
+ * Os observadores usam {@code TransactionPhase.AFTER_SUCCESS} para reagir apenas depois do commit.
+ */
+public class EntityChanged {
+
+    public enum Kind { CREATED, UPDATED, DELETED }
+
+    private final Class<?> type;
+    private final long id;
+    private final Object entity;
+    private final Kind kind;
+
+    private EntityChanged(Class<?> type, long id, Object entity, Kind kind) {
+        this.type = type;
+        this.id = id;
+        this.entity = entity;
+        this.kind = kind;
+    }
+
+    public static EntityChanged created(Class<?> type, long id, Object entity) {
+        return new EntityChanged(type, id, entity, Kind.CREATED);
+    }
+
+    public static EntityChanged updated(Class<?> type, long id, Object entity) {
+        return new EntityChanged(type, id, entity, Kind.UPDATED);
+    }
+
+    public static EntityChanged deleted(Class<?> type, long id) {
+        return new EntityChanged(type, id, null, Kind.DELETED);
+    }
+
+    public Class<?> getType() { return type; }
+    public long getId() { return id; }
+    public Object getEntity() { return entity; }
+    public Kind getKind() { return kind; }
+}
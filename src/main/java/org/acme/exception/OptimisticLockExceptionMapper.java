@@ -0,0 +1,19 @@
+package org.acme.exception;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import java.util.List;
+
+@Provider
+public class OptimisticLockExceptionMapper implements ExceptionMapper<OptimisticLockException> {
+
+    @Override
+    public Response toResponse(OptimisticLockException exception) {
+        return Response.status(Response.Status.CONFLICT)
+                .entity(new ValidationExceptionMapper.ErrorResponseBody(409, "Conflito de Versão",
+                        List.of("O registro foi alterado por outra requisição. Recarregue-o e tente novamente.")))
+                .build();
+    }
+}
\ No newline at end of file
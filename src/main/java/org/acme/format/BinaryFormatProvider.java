@@ -0,0 +1,66 @@
+package org.acme.format;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Lê e escreve corpos CBOR e Smile com os modelos Jackson da aplicação. Corpos já prontos
+ * (bytes, texto e streams) ficam com os providers padrão.
+ */
+@Provider
+@Produces({Format.APPLICATION_CBOR, Format.APPLICATION_SMILE})
+@Consumes({Format.APPLICATION_CBOR, Format.APPLICATION_SMILE})
+public class BinaryFormatProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    @Inject
+    FormatMappers mappers;
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return binary(mediaType) && !raw(type);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        ObjectMapper mapper = mappers.of(Format.of(mediaType));
+        return mapper.readValue(entityStream, mapper.getTypeFactory().constructType(genericType));
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return binary(mediaType) && !raw(type);
+    }
+
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        // Em bytes de uma vez: o flush do gerador Jackson mandaria a resposta em chunks, sem Content-Length,
+        // e a compressão não teria como respeitar o tamanho mínimo
+        entityStream.write(mappers.of(Format.of(mediaType)).writeValueAsBytes(entity));
+    }
+
+    private static boolean binary(MediaType mediaType) {
+        return mediaType != null && !mediaType.isWildcardType() && !mediaType.isWildcardSubtype()
+                && Format.of(mediaType) != Format.JSON;
+    }
+
+    private static boolean raw(Class<?> type) {
+        return type == byte[].class || type == String.class
+                || InputStream.class.isAssignableFrom(type) || StreamingOutput.class.isAssignableFrom(type);
+    }
+}
\ No newline at end of file
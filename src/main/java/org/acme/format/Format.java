@@ -0,0 +1,96 @@
+package org.acme.format;
+
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Variant;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Representações negociadas pelo Accept. CBOR e Smile usam os mesmos modelos Jackson do
+ * JSON, mas são binários: menores e mais baratos de codificar e decodificar em consumo em massa.
+ */
+public enum Format {
+
+    JSON(MediaType.APPLICATION_JSON_TYPE),
+    CBOR(MediaType.valueOf("application/cbor")),
+    SMILE(MediaType.valueOf("application/x-jackson-smile"));
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    private static final List<Variant> VARIANTS = Variant.mediaTypes(
+            JSON.mediaType, CBOR.mediaType, SMILE.mediaType).build();
+
+    private final MediaType mediaType;
+
+    Format(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Formato preferido pelo Accept da requisição; JSON quando nenhum formato binário é pedido.
+     */
+    public static Format negotiate(Request request) {
+        Variant variant = request.selectVariant(VARIANTS);
+        return variant == null ? JSON : of(variant.getMediaType());
+    }
+
+    /**
+     * Primeiro formato aceito da lista, já ordenada por preferência.
+     */
+    public static Format preferred(List<MediaType> acceptable) {
+        for (MediaType type : acceptable) {
+            for (Format format : values()) {
+                if (format.mediaType.isCompatible(type)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    public static Format of(MediaType type) {
+        if (type != null) {
+            for (Format format : values()) {
+                if (format.mediaType.isCompatible(type)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * ETag da representação neste formato. Cada formato tem corpo diferente, então precisa de
+     * ETag própria; o JSON mantém a ETag original.
+     */
+    public EntityTag tag(EntityTag tag) {
+        if (this == JSON || tag == null) {
+            return tag;
+        }
+        return new EntityTag(tag.getValue() + suffix(), tag.isWeak());
+    }
+
+    /**
+     * Valor da ETag sem o sufixo de formato acrescentado por {@link #tag}, ou seja, o da representação JSON.
+     */
+    public static String untag(String value) {
+        for (Format format : values()) {
+            if (format != JSON && value.endsWith(format.suffix())) {
+                return value.substring(0, value.length() - format.suffix().length());
+            }
+        }
+        return value;
+    }
+
+    private String suffix() {
+        return "-" + name().toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package org.acme.format;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * ObjectMappers de cada formato. Os binários são cópias do mapper da aplicação, com os mesmos
+ * módulos e configurações, trocando apenas a fábrica de parsers e geradores.
+ */
+@ApplicationScoped
+public class FormatMappers {
+
+    @Inject
+    ObjectMapper json;
+
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+
+    @PostConstruct
+    void init() {
+        cbor = binary(json.copyWith(new CBORFactory()));
+        smile = binary(json.copyWith(new SmileFactory()));
+    }
+
+    public ObjectMapper of(Format format) {
+        return switch (format) {
+            case JSON -> json;
+            case CBOR -> cbor;
+            case SMILE -> smile;
+        };
+    }
+
+    // Os streams de entrada e saída pertencem ao servidor HTTP
+    private static ObjectMapper binary(ObjectMapper mapper) {
+        return mapper
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+                .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package org.acme.idempotency;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Resposta registrada para uma chave de idempotência, compartilhada entre as réplicas, ou a
+ * reivindicação pendente da requisição que está executando com a chave.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = {
+        @Index(name = "idx_idempotency_expira_em", columnList = "expiraEm")
+})
+public class IdempotencyEntry extends PanacheEntityBase {
+
+    // Status de uma chave reivindicada cuja requisição ainda não terminou; vale até expiraEm
+    public static final int PENDING = 0;
+
+    @Id
+    @Column(length = 512)
+    public String chave;
+
+    public int status;
+
+    @Lob
+    public byte[] corpo;
+
+    // Um cabeçalho por linha, no formato "Nome: valor"
+    @Column(length = 2000)
+    public String cabecalhos;
+
+    public Instant criadoEm;
+
+    public Instant expiraEm;
+}
\ No newline at end of file
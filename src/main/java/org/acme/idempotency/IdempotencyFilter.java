@@ -1,57 +1,59 @@
 package org.acme.idempotency;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.quarkus.arc.Arc;
+import io.vertx.ext.web.RoutingContext;
 
-import jakarta.annotation.Priority;
-import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.ws.rs.Priorities;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
 import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
-import jakarta.ws.rs.container.ResourceInfo;
-import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.ext.Provider;
+import org.acme.format.Format;
+import org.acme.format.FormatMappers;
+import org.eclipse.microprofile.config.ConfigProvider;
+
 import java.io.IOException;
-import java.lang.reflect.Method;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-@Provider
-@ApplicationScoped
-@Priority(Priorities.HEADER_DECORATOR)
+/**
+ * Filtro de idempotência de um método anotado com {@link Idempotent}. Não é um {@code @Provider}:
+ * o {@code FilterBindings} cria uma instância por método anotado, com o expireAfter já resolvido,
+ * e os métodos sem a anotação não passam por aqui.
+ */
 public class IdempotencyFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
     private static final String IDEMPOTENCY_KEY_HEADER = "X-Idempotency-Key";
     private static final String IDEMPOTENT_CONTEXT_PROPERTY = "idempotent-context";
 
-    private final Cache<String, IdempotencyRecord> cache;
+    // Cabeçalhos da resposta original que são repetidos no replay
+    private static final List<String> REPLAYED_HEADERS = List.of(HttpHeaders.LOCATION, HttpHeaders.ETAG);
 
-    @Context
-    ResourceInfo resourceInfo;
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+    private final int expireAfter;
 
-    public IdempotencyFilter() {
-        this.cache = Caffeine.newBuilder()
-                .maximumSize(1000)
-                .expireAfterWrite(Duration.ofHours(1))
-                .build();
+    // Dependências obtidas no primeiro uso, já que o filtro é criado fora do CDI
+    private volatile Beans beans;
+
+    public IdempotencyFilter(int expireAfter) {
+        this.expireAfter = expireAfter;
     }
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
-        Method method = resourceInfo.getResourceMethod();
-        Class<?> clazz = resourceInfo.getResourceClass();
-
-        Idempotent methodAnnotation = method.getAnnotation(Idempotent.class);
-        Idempotent classAnnotation = clazz.getAnnotation(Idempotent.class);
-
-        if (methodAnnotation == null && classAnnotation == null) {
-            return;
-        }
-
-        Idempotent idempotentConfig = methodAnnotation != null ? methodAnnotation : classAnnotation;
         String idempotencyKey = requestContext.getHeaderString(IDEMPOTENCY_KEY_HEADER);
 
         if (idempotencyKey == null || idempotencyKey.isBlank()) {
@@ -62,20 +64,106 @@ public class IdempotencyFilter implements ContainerRequestFilter, ContainerRespo
             return;
         }
 
+        Beans beans = beans();
+        IdempotencyStore store = beans.store;
+        Duration inFlightTimeout = beans.inFlightTimeout;
         String cacheKey = createCacheKey(requestContext, idempotencyKey);
 
-        IdempotencyRecord record = cache.getIfPresent(cacheKey);
+        // Single-flight: só a primeira requisição com a chave executa; as concorrentes esperam o resultado dela
+        while (true) {
+            IdempotencyRecord record = store.find(cacheKey);
 
-        if (record != null) {
-            requestContext.abortWith(Response
-                    .status(record.getStatus())
-                    .entity(record.getBody())
-                    .build());
-            return;
+            if (record != null) {
+                requestContext.abortWith(replay(record));
+                return;
+            }
+
+            CompletableFuture<IdempotencyRecord> flight = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> leader = inFlight.putIfAbsent(cacheKey, flight);
+            if (leader == null) {
+                // O líder anterior pode ter terminado entre a consulta ao cache e o registro
+                record = store.find(cacheKey);
+                if (record != null) {
+                    inFlight.remove(cacheKey, flight);
+                    flight.complete(record);
+                    requestContext.abortWith(replay(record));
+                    return;
+                }
+                // Só executa quem reivindicar a chave no banco, que é compartilhado entre as réplicas
+                IdempotencyStore.Claim claim = store.claim(cacheKey);
+                if (!claim.isAcquired()) {
+                    inFlight.remove(cacheKey, flight);
+                    flight.complete(claim.getRecord());
+                    requestContext.abortWith(claim.isInFlight()
+                            ? inFlightConflict(inFlightTimeout)
+                            : replay(claim.getRecord()));
+                    return;
+                }
+                // Libera os seguidores e a reivindicação mesmo que a resposta não chegue ao filtro de resposta
+                beans.routingContext.addEndHandler(ended -> {
+                    inFlight.remove(cacheKey, flight);
+                    if (flight.complete(null)) {
+                        store.release(cacheKey);
+                    }
+                });
+                requestContext.setProperty(IDEMPOTENT_CONTEXT_PROPERTY,
+                        new IdempotentContext(cacheKey, flight));
+                return;
+            }
+
+            try {
+                record = leader.get(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                requestContext.abortWith(inFlightConflict(inFlightTimeout));
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                requestContext.abortWith(Response.status(Response.Status.SERVICE_UNAVAILABLE).build());
+                return;
+            } catch (ExecutionException e) {
+                record = null;
+            }
+
+            if (record != null) {
+                requestContext.abortWith(replay(record));
+                return;
+            }
+            // O líder terminou sem registrar resultado: tenta de novo, possivelmente como líder
         }
+    }
 
-        requestContext.setProperty(IDEMPOTENT_CONTEXT_PROPERTY,
-                new IdempotentContext(cacheKey, idempotentConfig.expireAfter()));
+    private static Response inFlightConflict(Duration inFlightTimeout) {
+        return Response
+                .status(Response.Status.CONFLICT)
+                .entity("Uma requisição com a mesma X-Idempotency-Key ainda está em processamento")
+                .header("Retry-After", Math.max(1, inFlightTimeout.toSeconds()))
+                .build();
+    }
+
+    private static Response replay(IdempotencyRecord record) {
+        Response.ResponseBuilder response = Response.status(record.getStatus());
+        record.getHeaders().forEach(response::header);
+        if (record.getBody().length > 0) {
+            response.entity(record.getBody());
+        }
+        return response.build();
+    }
+
+    private byte[] serialize(Object entity, MediaType mediaType) {
+        if (entity == null) {
+            return new byte[0];
+        }
+        if (entity instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (entity instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return beans().mappers.of(Format.of(mediaType)).writeValueAsBytes(entity);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Override
@@ -85,48 +173,100 @@ public class IdempotencyFilter implements ContainerRequestFilter, ContainerRespo
             return;
         }
 
+        // Guarda os bytes já serializados e responde com eles, para que a entidade viva não fique no cache
+        MediaType mediaType = responseContext.getMediaType();
+        Object entity = responseContext.getEntity();
+        if (mediaType == null) {
+            mediaType = entity instanceof String
+                    ? MediaType.TEXT_PLAIN_TYPE
+                    : Format.preferred(requestContext.getAcceptableMediaTypes()).mediaType();
+        }
+        byte[] body = serialize(entity, mediaType);
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (entity != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, mediaType.toString());
+            responseContext.setEntity(body, responseContext.getEntityAnnotations(), mediaType);
+        }
+        for (String name : REPLAYED_HEADERS) {
+            String value = responseContext.getHeaderString(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+
         IdempotencyRecord record = new IdempotencyRecord(
                 responseContext.getStatus(),
-                responseContext.getEntity(),
-                Instant.now().plusSeconds(context.getExpireAfter())
+                body,
+                headers,
+                TimeUnit.SECONDS.toNanos(expireAfter)
         );
 
-        cache.put(context.getCacheKey(), record);
+        beans().store.save(context.getCacheKey(), record);
+        inFlight.remove(context.getCacheKey(), context.getFlight());
+        context.getFlight().complete(record);
     }
 
-    private String createCacheKey(ContainerRequestContext requestContext, String idempotencyKey) {
+    static String createCacheKey(ContainerRequestContext requestContext, String idempotencyKey) {
         return requestContext.getMethod() + ":" +
                 requestContext.getUriInfo().getPath() + ":" +
                 idempotencyKey;
     }
 
+    private Beans beans() {
+        Beans current = beans;
+        if (current == null) {
+            current = new Beans();
+            beans = current;
+        }
+        return current;
+    }
+
+    private static final class Beans {
+        private final IdempotencyStore store = Arc.container().instance(IdempotencyStore.class).get();
+        private final FormatMappers mappers = Arc.container().instance(FormatMappers.class).get();
+        // Proxy: resolve o RoutingContext da requisição corrente a cada uso
+        private final RoutingContext routingContext = Arc.container().instance(RoutingContext.class).get();
+        private final Duration inFlightTimeout = ConfigProvider.getConfig()
+                .getOptionalValue("idempotency.in-flight-timeout", Duration.class)
+                .orElse(Duration.ofSeconds(10));
+    }
 
     private static class IdempotentContext {
         private final String cacheKey;
-        private final int expireAfter;
+        private final CompletableFuture<IdempotencyRecord> flight;
 
-        public IdempotentContext(String cacheKey, int expireAfter) {
+        public IdempotentContext(String cacheKey, CompletableFuture<IdempotencyRecord> flight) {
             this.cacheKey = cacheKey;
-            this.expireAfter = expireAfter;
+            this.flight = flight;
         }
         public String getCacheKey() { return cacheKey; }
-        public int getExpireAfter() { return expireAfter; }
+        public CompletableFuture<IdempotencyRecord> getFlight() { return flight; }
     }
 
     public static class IdempotencyRecord {
-        public int status;
-        public Object body;
-        public Instant expiry;
-
-        public IdempotencyRecord() {}
+        private final int status;
+        private final byte[] body;
+        private final Map<String, String> headers;
+        private final long expireAfterNanos;
 
-        public IdempotencyRecord(int status, Object body, Instant expiry) {
+        public IdempotencyRecord(int status, byte[] body, Map<String, String> headers, long expireAfterNanos) {
             this.status = status;
             this.body = body;
-            this.expiry = expiry;
+            this.headers = headers;
+            this.expireAfterNanos = expireAfterNanos;
         }
         public int getStatus() { return status; }
-        public Object getBody() { return body; }
-        public Instant getExpiry() { return expiry; }
+        public byte[] getBody() { return body; }
+        public Map<String, String> getHeaders() { return headers; }
+        public long getExpireAfterNanos() { return expireAfterNanos; }
+
+        int weight() {
+            int weight = body.length;
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                weight += header.getKey().length() + header.getValue().length();
+            }
+            return weight;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,252 @@
+package org.acme.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import org.acme.idempotency.IdempotencyFilter.IdempotencyRecord;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registros de idempotência duráveis e compartilhados entre as réplicas, na tabela
+ * {@code idempotency_record}. Antes de executar, a requisição reivindica a chave inserindo um
+ * registro pendente: a chave primária garante que só uma réplica executa, e as demais recebem o
+ * resultado gravado ou ficam sabendo que a execução ainda está em andamento. Na frente do banco
+ * fica um near-cache com os registros recentes. Uma chave nunca vista custa uma única ida ao banco,
+ * a própria reivindicação: sem ela duas réplicas poderiam executar a mesma chave.
+ */
+@ApplicationScoped
+public class IdempotencyStore {
+
+    @Inject
+    Session session;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "idempotency.max-bytes", defaultValue = "16777216")
+    long maxBytes;
+
+    @ConfigProperty(name = "idempotency.store.sweep-batch-size", defaultValue = "500")
+    int sweepBatchSize;
+
+    @ConfigProperty(name = "idempotency.store.pending-timeout", defaultValue = "PT1M")
+    Duration pendingTimeout;
+
+    private Cache<String, IdempotencyRecord> nearCache;
+
+    @PostConstruct
+    void init() {
+        // Limitado pelo tamanho das respostas guardadas; cada registro expira conforme o expireAfter do @Idempotent
+        nearCache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, IdempotencyRecord>weigher((key, record) -> key.length() + record.weight())
+                .expireAfter(new Expiry<String, IdempotencyRecord>() {
+                    @Override
+                    public long expireAfterCreate(String key, IdempotencyRecord record, long currentTime) {
+                        return record.getExpireAfterNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+                        return record.getExpireAfterNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        // Mesmas chaves de tag dos demais cache.*, senão o Prometheus descarta um dos registros
+        CaffeineCacheMetrics.monitor(registry, nearCache, "idempotency.near-cache", Tags.of("type", "record"));
+    }
+
+    /**
+     * Resposta recente para a chave no near-cache, ou null, sem ir ao banco. Um null não garante que
+     * a chave esteja livre: quem vai executar precisa antes de {@link #claim}, que traz a resposta
+     * gravada por outra réplica quando houver.
+     */
+    public IdempotencyRecord find(String key) {
+        return nearCache.getIfPresent(key);
+    }
+
+    /**
+     * Reivindica a chave para execução inserindo um registro pendente. Se outra requisição, desta
+     * ou de outra réplica, já a reivindicou, devolve o resultado gravado ou {@link Claim#IN_FLIGHT}.
+     * Registros vencidos, inclusive pendentes de uma réplica que caiu, são removidos e a chave é
+     * reivindicada de novo.
+     */
+    public Claim claim(String key) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Instant now = Instant.now();
+            if (insertPending(key, now)) {
+                return Claim.ACQUIRED;
+            }
+
+            IdempotencyEntry existing = QuarkusTransaction.requiringNew().call(() -> session.find(IdempotencyEntry.class, key));
+            if (existing == null) {
+                // Removido pela varredura entre o insert e a leitura
+                continue;
+            }
+            if (existing.expiraEm.isAfter(now)) {
+                return existing.status == IdempotencyEntry.PENDING
+                        ? Claim.IN_FLIGHT
+                        : new Claim(cache(key, existing, now));
+            }
+            QuarkusTransaction.requiringNew().run(() -> session
+                    .createMutationQuery("delete from IdempotencyEntry e where e.chave = :key and e.expiraEm <= :now")
+                    .setParameter("key", key)
+                    .setParameter("now", now)
+                    .executeUpdate());
+        }
+        return Claim.IN_FLIGHT;
+    }
+
+    /**
+     * Grava a resposta no registro pendente reivindicado por {@link #claim}. Se a reivindicação
+     * venceu e outra requisição tomou a chave, o registro dela é mantido.
+     */
+    public void save(String key, IdempotencyRecord record) {
+        Instant now = Instant.now();
+        int updated = QuarkusTransaction.requiringNew().call(() -> session
+                .createMutationQuery("update IdempotencyEntry e set e.status = :status, e.corpo = :corpo, "
+                        + "e.cabecalhos = :cabecalhos, e.expiraEm = :expiraEm where e.chave = :key and e.status = :pending")
+                .setParameter("status", record.getStatus())
+                .setParameter("corpo", record.getBody())
+                .setParameter("cabecalhos", formatHeaders(record.getHeaders()))
+                .setParameter("expiraEm", now.plusNanos(record.getExpireAfterNanos()))
+                .setParameter("key", key)
+                .setParameter("pending", IdempotencyEntry.PENDING)
+                .executeUpdate());
+        if (updated > 0) {
+            nearCache.put(key, record);
+        }
+    }
+
+    /**
+     * Desiste de uma reivindicação que terminou sem resposta gravada, para que uma nova tentativa
+     * possa executar sem esperar o pending-timeout. Roda fora do event loop de quem chama.
+     */
+    public void release(String key) {
+        vertx.executeBlocking(() -> {
+            QuarkusTransaction.requiringNew().run(() -> session
+                    .createMutationQuery("delete from IdempotencyEntry e where e.chave = :key and e.status = :pending")
+                    .setParameter("key", key)
+                    .setParameter("pending", IdempotencyEntry.PENDING)
+                    .executeUpdate());
+            return null;
+        }, false);
+    }
+
+    /**
+     * Remove os registros vencidos em lotes, cada um em sua transação.
+     */
+    @Scheduled(every = "${idempotency.store.sweep-interval:1m}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void sweep() {
+        Instant now = Instant.now();
+        int deleted;
+        do {
+            deleted = QuarkusTransaction.requiringNew().call(() -> {
+                List<String> expired = session
+                        .createSelectionQuery("select e.chave from IdempotencyEntry e where e.expiraEm <= :now", String.class)
+                        .setParameter("now", now)
+                        .setMaxResults(sweepBatchSize)
+                        .getResultList();
+                if (expired.isEmpty()) {
+                    return 0;
+                }
+                return session.createMutationQuery("delete from IdempotencyEntry e where e.chave in :keys")
+                        .setParameterList("keys", expired)
+                        .executeUpdate();
+            });
+        } while (deleted >= sweepBatchSize);
+    }
+
+    private boolean insertPending(String key, Instant now) {
+        IdempotencyEntry entry = new IdempotencyEntry();
+        entry.chave = key;
+        entry.status = IdempotencyEntry.PENDING;
+        entry.criadoEm = now;
+        entry.expiraEm = now.plus(pendingTimeout);
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                session.persist(entry);
+                session.flush();
+            });
+            return true;
+        } catch (PersistenceException e) {
+            // Chave primária duplicada: outra requisição já reivindicou a chave
+            return false;
+        }
+    }
+
+    private IdempotencyRecord cache(String key, IdempotencyEntry entry, Instant now) {
+        IdempotencyRecord record = new IdempotencyRecord(entry.status, entry.corpo, parseHeaders(entry.cabecalhos),
+                Duration.between(now, entry.expiraEm).toNanos());
+        nearCache.put(key, record);
+        return record;
+    }
+
+    /**
+     * Resultado de {@link #claim}: a chave foi reivindicada por quem chamou, já tem resposta
+     * gravada ({@link #getRecord}) ou está sendo executada por outra requisição.
+     */
+    public static final class Claim {
+
+        static final Claim ACQUIRED = new Claim(null);
+        static final Claim IN_FLIGHT = new Claim(null);
+
+        private final IdempotencyRecord record;
+
+        private Claim(IdempotencyRecord record) {
+            this.record = record;
+        }
+
+        public boolean isAcquired() { return this == ACQUIRED; }
+        public boolean isInFlight() { return this == IN_FLIGHT; }
+        public IdempotencyRecord getRecord() { return record; }
+    }
+
+    private static String formatHeaders(Map<String, String> headers) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            text.append(header.getKey()).append(": ").append(header.getValue()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static Map<String, String> parseHeaders(String text) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (text == null) {
+            return headers;
+        }
+        for (String line : text.split("\n")) {
+            int colon = line.indexOf(": ");
+            if (colon > 0) {
+                headers.put(line.substring(0, colon), line.substring(colon + 2));
+            }
+        }
+        return headers;
+    }
+}
\ No newline at end of file
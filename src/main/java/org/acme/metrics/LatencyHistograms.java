@@ -0,0 +1,34 @@
+package org.acme.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Publica p50 e p99 (e o histograma, para agregar entre réplicas no Prometheus) dos tempos por
+ * endpoint, que o Quarkus mede em {@code http.server.requests} com o template do caminho como
+ * {@code uri}, e das métricas de banco por método de resource.
+ */
+@Singleton
+public class LatencyHistograms {
+
+    @Produces
+    @Singleton
+    MeterFilter percentiles() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().equals("http.server.requests") || id.getName().startsWith("sql.request.")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentiles(0.5, 0.99)
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package org.acme.projection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ArtistaView {
+    public Long id;
+    public String nomeArtistico;
+    public String nomeCompleto;
+    public LocalDate dataDeEstreia;
+    public String paisDeOrigem;
+    public PerfilArtistaView perfil;
+
+    static Projection<ArtistaView> projection(String alias) {
+        return new Projection<>(alias, ArtistaView::new)
+                .column("id", (v, x) -> v.id = (Long) x)
+                .column("nomeArtistico", (v, x) -> v.nomeArtistico = (String) x)
+                .column("nomeCompleto", (v, x) -> v.nomeCompleto = (String) x)
+                .column("dataDeEstreia", (v, x) -> v.dataDeEstreia = (LocalDate) x)
+                .column("paisDeOrigem", (v, x) -> v.paisDeOrigem = (String) x);
+    }
+}
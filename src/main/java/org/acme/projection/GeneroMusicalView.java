@@ -0,0 +1,17 @@
+package org.acme.projection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GeneroMusicalView {
+    public Long id;
+    public String nome;
+    public String descricao;
+
+    static Projection<GeneroMusicalView> projection(String alias) {
+        return new Projection<>(alias, GeneroMusicalView::new)
+                .column("id", (v, x) -> v.id = (Long) x)
+                .column("nome", (v, x) -> v.nome = (String) x)
+                .column("descricao", (v, x) -> v.descricao = (String) x);
+    }
+}
@@ -0,0 +1,27 @@
+package org.acme.projection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MusicaView {
+    public Long id;
+    public String titulo;
+    public String letra;
+    public Integer anoLancamento;
+    public Double nota;
+    public Integer duracaoSegundos;
+    public ArtistaView artista;
+    public List<GeneroMusicalView> generos;
+
+    static Projection<MusicaView> projection(String alias) {
+        return new Projection<>(alias, MusicaView::new)
+                .column("id", (v, x) -> v.id = (Long) x)
+                .column("titulo", (v, x) -> v.titulo = (String) x)
+                .column("letra", (v, x) -> v.letra = (String) x)
+                .column("anoLancamento", (v, x) -> v.anoLancamento = (Integer) x)
+                .column("nota", (v, x) -> v.nota = (Double) x)
+                .column("duracaoSegundos", (v, x) -> v.duracaoSegundos = (Integer) x);
+    }
+}
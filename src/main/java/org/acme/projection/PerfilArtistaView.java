@@ -0,0 +1,19 @@
+package org.acme.projection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PerfilArtistaView {
+    public Long id;
+    public String descricaoCarreira;
+    public String estiloMusicalPrincipal;
+    public String premiosEReconhecimentos;
+
+    static Projection<PerfilArtistaView> projection(String alias) {
+        return new Projection<>(alias, PerfilArtistaView::new)
+                .column("id", (v, x) -> v.id = (Long) x)
+                .column("descricaoCarreira", (v, x) -> v.descricaoCarreira = (String) x)
+                .column("estiloMusicalPrincipal", (v, x) -> v.estiloMusicalPrincipal = (String) x)
+                .column("premiosEReconhecimentos", (v, x) -> v.premiosEReconhecimentos = (String) x);
+    }
+}
@@ -0,0 +1,73 @@
+package org.acme.projection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Descreve as colunas escalares de uma entidade que entram no SELECT de uma consulta
+ * de projeção e como cada coluna é copiada para a view. A primeira coluna é sempre o id:
+ * quando ela vem nula (left join sem correspondência), a view não é criada.
+ */
+public class Projection<V> {
+
+    private final String alias;
+    private final Supplier<V> factory;
+    private final List<String> names = new ArrayList<>();
+    private final List<BiConsumer<V, Object>> setters = new ArrayList<>();
+
+    public Projection(String alias, Supplier<V> factory) {
+        this.alias = alias;
+        this.factory = factory;
+    }
+
+    public Projection<V> column(String name, BiConsumer<V, Object> setter) {
+        names.add(name);
+        setters.add(setter);
+        return this;
+    }
+
+    /**
+     * Projeção só com as colunas em {@code fields}, além do id, que é sempre mantido.
+     * Com {@code fields} nulo a projeção é retornada inteira.
+     */
+    public Projection<V> only(Set<String> fields) {
+        if (fields == null) {
+            return this;
+        }
+        Projection<V> narrowed = new Projection<>(alias, factory);
+        for (int i = 0; i < names.size(); i++) {
+            if (i == 0 || fields.contains(names.get(i))) {
+                narrowed.column(names.get(i), setters.get(i));
+            }
+        }
+        return narrowed;
+    }
+
+    public String alias() {
+        return alias;
+    }
+
+    public int width() {
+        return names.size();
+    }
+
+    public void select(List<String> select) {
+        for (String name : names) {
+            select.add(alias + "." + name);
+        }
+    }
+
+    public V read(Object[] row, int offset) {
+        if (row[offset] == null) {
+            return null;
+        }
+        V view = factory.get();
+        for (int i = 0; i < setters.size(); i++) {
+            setters.get(i).accept(view, row[offset + i]);
+        }
+        return view;
+    }
+}
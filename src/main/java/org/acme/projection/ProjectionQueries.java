@@ -0,0 +1,210 @@
+package org.acme.projection;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consultas de projeção usadas pelas listagens e buscas. Cada consulta seleciona apenas
+ * colunas escalares e faz join somente com as associações pedidas em {@code expand},
+ * evitando os selects extras (N+1) disparados pelos mapeamentos EAGER/LAZY das entidades.
+ * Com {@code fields}, só as colunas pedidas da entidade principal entram no SELECT.
+ */
+@ApplicationScoped
+public class ProjectionQueries {
+
+    private static final Projection<MusicaView> MUSICA = MusicaView.projection("m");
+    private static final Projection<ArtistaView> ARTISTA = ArtistaView.projection("a");
+    private static final Projection<PerfilArtistaView> PERFIL = PerfilArtistaView.projection("p");
+    private static final Projection<GeneroMusicalView> GENERO = GeneroMusicalView.projection("g");
+
+    @Inject
+    Session session;
+
+    public static Set<String> expand(String raw) {
+        Set<String> expand = new LinkedHashSet<>();
+        if (raw != null) {
+            for (String part : raw.split(",")) {
+                String name = part.trim().toLowerCase(Locale.ROOT);
+                if (!name.isEmpty()) {
+                    expand.add(name);
+                }
+            }
+        }
+        return expand;
+    }
+
+    /**
+     * Campos pedidos em {@code fields=}, ou null quando o parâmetro não foi informado (todos os campos).
+     */
+    public static Set<String> fields(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String part : raw.split(",")) {
+            String name = part.trim();
+            if (!name.isEmpty()) {
+                fields.add(name);
+            }
+        }
+        return fields;
+    }
+
+    public static String fieldsKey(Set<String> fields) {
+        return fields == null ? "" : String.join(",", fields);
+    }
+
+    /**
+     * Lista músicas. {@code max} igual a zero retorna todas as linhas a partir de {@code first}.
+     */
+    public List<MusicaView> musicas(String where, Map<String, Object> params, String orderBy,
+                                    int first, int max, Set<String> expand, Set<String> fields) {
+        boolean perfil = expand.contains("perfil");
+        boolean artista = perfil || expand.contains("artista");
+        Projection<MusicaView> musica = MUSICA.only(fields);
+
+        List<String> select = new ArrayList<>();
+        musica.select(select);
+        StringBuilder from = new StringBuilder(" from Musica m");
+        if (artista) {
+            ARTISTA.select(select);
+            from.append(" left join m.artista a");
+        }
+        if (perfil) {
+            PERFIL.select(select);
+            from.append(" left join a.perfil p");
+        }
+
+        List<MusicaView> views = new ArrayList<>();
+        for (Object[] row : rows(select, from, where, params, orderBy, first, max)) {
+            MusicaView view = musica.read(row, 0);
+            if (artista) {
+                view.artista = ARTISTA.read(row, musica.width());
+                if (perfil && view.artista != null) {
+                    view.artista.perfil = PERFIL.read(row, musica.width() + ARTISTA.width());
+                }
+            }
+            views.add(view);
+        }
+
+        if (expand.contains("generos") && !views.isEmpty()) {
+            attachGeneros(views, (where == null || where.isBlank()) && first == 0 && max == 0);
+        }
+        return views;
+    }
+
+    public List<ArtistaView> artistas(String where, Map<String, Object> params, String orderBy,
+                                      int first, int max, Set<String> expand, Set<String> fields) {
+        boolean perfil = expand.contains("perfil");
+        Projection<ArtistaView> artista = ARTISTA.only(fields);
+
+        List<String> select = new ArrayList<>();
+        artista.select(select);
+        StringBuilder from = new StringBuilder(" from Artista a");
+        if (perfil) {
+            PERFIL.select(select);
+            from.append(" left join a.perfil p");
+        }
+
+        List<ArtistaView> views = new ArrayList<>();
+        for (Object[] row : rows(select, from, where, params, orderBy, first, max)) {
+            ArtistaView view = artista.read(row, 0);
+            if (perfil) {
+                view.perfil = PERFIL.read(row, artista.width());
+            }
+            views.add(view);
+        }
+        return views;
+    }
+
+    public List<GeneroMusicalView> generos(String where, Map<String, Object> params, String orderBy,
+                                           int first, int max, Set<String> fields) {
+        Projection<GeneroMusicalView> genero = GENERO.only(fields);
+        List<String> select = new ArrayList<>();
+        genero.select(select);
+
+        List<GeneroMusicalView> views = new ArrayList<>();
+        for (Object[] row : rows(select, new StringBuilder(" from GeneroMusical g"), where, params, orderBy, first, max)) {
+            views.add(genero.read(row, 0));
+        }
+        return views;
+    }
+
+    /**
+     * Conta as linhas de {@code entity} (com o alias dado) que atendem ao filtro.
+     */
+    public long count(String entity, String alias, String where, Map<String, Object> params) {
+        String hql = "select count(" + alias + ") from " + entity + " " + alias
+                + (where == null || where.isBlank() ? "" : " where " + where);
+        SelectionQuery<Long> query = session.createSelectionQuery(hql, Long.class);
+        bind(query, params);
+        return query.getSingleResult();
+    }
+
+    private List<Object[]> rows(List<String> select, StringBuilder from, String where,
+                                Map<String, Object> params, String orderBy, int first, int max) {
+        StringBuilder hql = new StringBuilder("select ").append(String.join(", ", select)).append(from);
+        if (where != null && !where.isBlank()) {
+            hql.append(" where ").append(where);
+        }
+        hql.append(" order by ").append(orderBy);
+
+        SelectionQuery<Object[]> query = session.createSelectionQuery(hql.toString(), Object[].class);
+        bind(query, params);
+        query.setFirstResult(first);
+        if (max > 0) {
+            query.setMaxResults(max);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Carrega os gêneros de todas as músicas da página com uma única consulta.
+     * Quando a listagem é completa, dispensa o {@code in (...)} com todos os ids.
+     */
+    private void attachGeneros(List<MusicaView> views, boolean all) {
+        Map<Long, MusicaView> byId = new HashMap<>();
+        for (MusicaView view : views) {
+            view.generos = new ArrayList<>();
+            byId.put(view.id, view);
+        }
+
+        String hql = "select m.id, g.id, g.nome, g.descricao from Musica m join m.generos g"
+                + (all ? "" : " where m.id in :ids")
+                + " order by g.id";
+        SelectionQuery<Object[]> query = session.createSelectionQuery(hql, Object[].class);
+        if (!all) {
+            query.setParameterList("ids", byId.keySet());
+        }
+        for (Object[] row : query.getResultList()) {
+            MusicaView view = byId.get((Long) row[0]);
+            if (view != null) {
+                view.generos.add(GENERO.read(row, 1));
+            }
+        }
+    }
+
+    private static void bind(SelectionQuery<?> query, Map<String, Object> params) {
+        if (params == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            if (param.getValue() instanceof Collection<?> values) {
+                query.setParameterList(param.getKey(), values);
+            } else {
+                query.setParameter(param.getKey(), param.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.acme.ratelimit;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cotas compartilhadas no banco da aplicação. Cada arrendamento é uma transação curta que
+ * trava a linha do cliente e avança o TAT pelo número de unidades concedidas. Uma linha cujo TAT
+ * já passou equivale a um balde cheio, o mesmo que nenhuma linha, e é removida pela varredura.
+ */
+@ApplicationScoped
+public class JdbcQuotaBackend implements QuotaBackend {
+
+    @Inject
+    Session session;
+
+    @Inject
+    RateLimitConfig config;
+
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+
+    @Override
+    public long lease(String key, long min, long max, long limit, Duration period) {
+        long periodMicros = TimeUnit.NANOSECONDS.toMicros(period.toNanos());
+        long interval = periodMicros / limit;
+        try {
+            return QuarkusTransaction.requiringNew().call(() -> take(key, min, max, interval, periodMicros));
+        } catch (PersistenceException e) {
+            // Outro nó criou a linha do cliente ao mesmo tempo; na segunda tentativa ela já existe
+            return QuarkusTransaction.requiringNew().call(() -> take(key, min, max, interval, periodMicros));
+        }
+    }
+
+    private long take(String key, long min, long max, long interval, long period) {
+        long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        QuotaLease quota = session.find(QuotaLease.class, key, LockModeType.PESSIMISTIC_WRITE);
+        if (quota == null) {
+            quota = new QuotaLease();
+            quota.chave = key;
+            quota.tat = now;
+            session.persist(quota);
+            session.flush();
+        }
+
+        long base = Math.max(quota.tat, now);
+        long available = (now + period - base) / interval;
+        if (available < min) {
+            return -TimeUnit.MICROSECONDS.toNanos(base + min * interval - period - now);
+        }
+        long granted = Math.min(max, available);
+        quota.tat = base + granted * interval;
+        return granted;
+    }
+
+    /**
+     * Remove as cotas vencidas em lotes, cada um em sua transação; só quando este é o backend em uso.
+     */
+    @Scheduled(every = "${rate-limit.jdbc.sweep-interval:1m}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void sweep() {
+        if (name().equals(config.backend())) {
+            deleteExpired();
+        }
+    }
+
+    void deleteExpired() {
+        long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        int batchSize = config.jdbc().sweepBatchSize();
+        int selected;
+        do {
+            selected = QuarkusTransaction.requiringNew().call(() -> {
+                List<String> expired = session
+                        .createSelectionQuery("select q.chave from QuotaLease q where q.tat <= :now", String.class)
+                        .setParameter("now", now)
+                        .setMaxResults(batchSize)
+                        .getResultList();
+                if (!expired.isEmpty()) {
+                    // Repete o filtro: um arrendamento pode ter avançado o TAT depois da seleção
+                    session.createMutationQuery("delete from QuotaLease q where q.chave in :keys and q.tat <= :now")
+                            .setParameterList("keys", expired)
+                            .setParameter("now", now)
+                            .executeUpdate();
+                }
+                return expired.size();
+            });
+        } while (selected >= batchSize);
+    }
+}
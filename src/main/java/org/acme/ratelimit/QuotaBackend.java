@@ -0,0 +1,22 @@
+package org.acme.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Armazenamento compartilhado das cotas, para que o limite valha para o cluster inteiro.
+ * Cada nó arrenda lotes de unidades e os gasta localmente, sem uma chamada remota por requisição.
+ */
+public interface QuotaBackend {
+
+    /**
+     * Nome usado em {@code rate-limit.backend}.
+     */
+    String name();
+
+    /**
+     * Arrenda entre {@code min} e {@code max} unidades da cota de {@code key}, que admite
+     * {@code limit} unidades por {@code period}. Retorna as unidades concedidas ou, quando não
+     * há nem {@code min} disponíveis, o negativo dos nanossegundos até que haja.
+     */
+    long lease(String key, long min, long max, long limit, Duration period);
+}
\ No newline at end of file
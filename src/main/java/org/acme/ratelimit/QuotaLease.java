@@ -0,0 +1,22 @@
+package org.acme.ratelimit;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Estado compartilhado de uma cota: o instante teórico de chegada (TAT) do GCRA, em
+ * microssegundos desde a época, para que nós diferentes usem o mesmo relógio.
+ */
+@Entity
+@Table(name = "rate_limit_quota")
+public class QuotaLease extends PanacheEntityBase {
+
+    @Id
+    @Column(length = 512)
+    public String chave;
+
+    public long tat;
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package org.acme.ratelimit;
+
+import io.quarkus.runtime.annotations.StaticInitSafe;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Lida também na inicialização estática, quando o FilterBindings decide quais métodos passam pelo filtro
+@StaticInitSafe
+@ConfigMapping(prefix = "rate-limit")
+public interface RateLimitConfig {
+
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * Quantos proxies confiáveis ficam à frente da aplicação. Cada um acrescenta uma entrada ao
+     * X-Forwarded-For, então o cliente é a entrada nessa posição a partir da direita.
+     * Com 0 o cabeçalho é ignorado e vale o endereço remoto da conexão.
+     */
+    @WithDefault("0")
+    int trustedProxies();
+
+    /**
+     * Onde as cotas são contadas: {@code local} (em memória, por nó) ou o nome de um
+     * {@link QuotaBackend} compartilhado, como {@code jdbc}.
+     */
+    @WithDefault("local")
+    String backend();
+
+    /**
+     * Unidades arrendadas de uma vez do backend compartilhado, limitadas ao limite da rota.
+     * Lotes maiores reduzem as idas ao backend; lotes menores distribuem melhor a cota entre os nós.
+     */
+    @WithDefault("10")
+    long leaseSize();
+
+    /**
+     * Número máximo de clientes acompanhados por rota.
+     */
+    @WithDefault("100000")
+    long maxClients();
+
+    /**
+     * Remoção das cotas vencidas do backend {@code jdbc}.
+     */
+    Jdbc jdbc();
+
+    Map<String, Route> routes();
+
+    interface Jdbc {
+
+        /**
+         * Intervalo entre as varreduras; lido pelo {@code @Scheduled} da varredura.
+         */
+        @WithDefault("1m")
+        Duration sweepInterval();
+
+        /**
+         * Cotas removidas por transação.
+         */
+        @WithDefault("500")
+        int sweepBatchSize();
+    }
+
+    interface Route {
+
+        /**
+         * Prefixo do caminho; vale a rota de prefixo mais longo.
+         */
+        String path();
+
+        /**
+         * Requisições de custo 1 permitidas por período (também é a rajada máxima).
+         */
+        long limit();
+
+        Duration period();
+
+        /**
+         * Parâmetro de query que define o custo da requisição, por exemplo {@code size}.
+         */
+        Optional<String> costParam();
+
+        /**
+         * Valor do parâmetro que corresponde a uma unidade de custo.
+         */
+        @WithDefault("1")
+        int costUnit();
+
+        /**
+         * Métodos HTTP limitados pela rota; sem valor, todos. Os demais métodos nem passam pelo filtro.
+         */
+        Optional<Set<String>> methods();
+    }
+}
\ No newline at end of file
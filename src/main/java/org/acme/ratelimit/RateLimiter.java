@@ -0,0 +1,340 @@
+package org.acme.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.arc.Unremovable;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador GCRA (equivalente a um token bucket) por rota e cliente. O estado de cada cliente
+ * é um único {@code long}, o instante teórico de chegada (TAT), atualizado por CAS: depois que o
+ * cliente já está no cache, {@link Route#acquire} não usa locks nem aloca. O filtro ainda aloca a
+ * chave do cliente quando ela vem do X-Forwarded-For e os valores dos cabeçalhos X-RateLimit.
+ * Com um {@link QuotaBackend} compartilhado, cada nó arrenda lotes de unidades e os gasta da
+ * mesma forma, voltando ao backend só quando o lote acaba.
+ */
+// Só é obtido pelo FilterBindings via Arc, sem nenhum ponto de injeção
+@Unremovable
+@ApplicationScoped
+public class RateLimiter {
+
+    @Inject
+    RateLimitConfig config;
+
+    @Inject
+    @Any
+    Instance<QuotaBackend> backends;
+
+    @Inject
+    MeterRegistry registry;
+
+    // Relógio em nanossegundos, trocado nos testes por um relógio manual
+    LongSupplier clock = System::nanoTime;
+
+    private Route[] routes;
+
+    @PostConstruct
+    void init() {
+        QuotaBackend backend = null;
+        if (!config.backend().equals("local")) {
+            for (QuotaBackend candidate : backends) {
+                if (candidate.name().equals(config.backend())) {
+                    backend = candidate;
+                }
+            }
+            if (backend == null) {
+                throw new IllegalStateException("rate-limit.backend desconhecido: " + config.backend());
+            }
+        }
+
+        List<Route> configured = new ArrayList<>();
+        for (Map.Entry<String, RateLimitConfig.Route> entry : config.routes().entrySet()) {
+            configured.add(new Route(entry.getKey(), entry.getValue(), config.maxClients(), backend, config.leaseSize(),
+                    registry, clock));
+        }
+        // Prefixos mais longos primeiro, para que a primeira rota encontrada seja a mais específica
+        configured.sort(Comparator.comparingInt((Route route) -> route.path.length()).reversed());
+        routes = configured.toArray(new Route[0]);
+    }
+
+    /**
+     * Nome da rota mais específica para o caminho e o método HTTP, ou null quando nenhuma se aplica.
+     * Resolvido uma vez por método de resource, na inicialização estática, a partir do template do
+     * caminho; por isso recebe a configuração e não depende do bean.
+     */
+    public static String routeName(RateLimitConfig config, String path, String httpMethod) {
+        if (!config.enabled()) {
+            return null;
+        }
+        String matched = null;
+        RateLimitConfig.Route matchedRoute = null;
+        for (Map.Entry<String, RateLimitConfig.Route> entry : config.routes().entrySet()) {
+            String prefix = entry.getValue().path();
+            if (path.startsWith(prefix) && (matchedRoute == null || prefix.length() > matchedRoute.path().length())) {
+                matched = entry.getKey();
+                matchedRoute = entry.getValue();
+            }
+        }
+        if (matchedRoute == null) {
+            return null;
+        }
+        Set<String> methods = matchedRoute.methods().orElse(null);
+        return methods == null || (httpMethod != null && methods.contains(httpMethod)) ? matched : null;
+    }
+
+    /**
+     * Rota configurada com o nome dado, já com o estado por cliente.
+     */
+    public Route route(String name) {
+        for (Route route : routes) {
+            if (route.name.equals(name)) {
+                return route;
+            }
+        }
+        throw new IllegalStateException("Rota de rate limit desconhecida: " + name);
+    }
+
+    /**
+     * Identifica o cliente: com proxies confiáveis, a entrada do X-Forwarded-For que o proxy mais
+     * externo acrescentou; caso contrário, o endereço remoto da conexão.
+     */
+    public String clientKey(String forwardedFor, String remoteAddress) {
+        int hops = config.trustedProxies();
+        if (hops <= 0 || forwardedFor == null) {
+            return remoteAddress;
+        }
+        int end = forwardedFor.length();
+        int comma = forwardedFor.lastIndexOf(',', end - 1);
+        for (int hop = 1; hop < hops && comma >= 0; hop++) {
+            end = comma;
+            comma = forwardedFor.lastIndexOf(',', end - 1);
+        }
+        int start = comma + 1;
+        while (start < end && forwardedFor.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && forwardedFor.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return start == end ? remoteAddress : forwardedFor.substring(start, end);
+    }
+
+    public static final class Route {
+
+        private final String name;
+        private final String path;
+        private final long limit;
+        private final long period;
+        private final long interval;
+        private final String costParam;
+        private final int costUnit;
+        private final Set<String> methods;
+        private final QuotaBackend backend;
+        private final long leaseSize;
+        private final Cache<String, AtomicLong> clients;
+        private final Cache<String, Lease> leases;
+        private final Counter rejections;
+        private final LongSupplier clock;
+
+        Route(String name, RateLimitConfig.Route config, long maxClients, QuotaBackend backend, long leaseSize,
+              MeterRegistry registry, LongSupplier clock) {
+            this.name = name;
+            this.clock = clock;
+            this.path = config.path();
+            this.limit = config.limit();
+            this.period = config.period().toNanos();
+            this.interval = period / limit;
+            this.costParam = config.costParam().orElse(null);
+            this.costUnit = Math.max(1, config.costUnit());
+            this.methods = config.methods().orElse(null);
+            this.backend = backend;
+            this.leaseSize = Math.max(1, Math.min(leaseSize, limit));
+            // Um cliente parado por um período inteiro já teria o balde cheio: pode sair do cache
+            this.clients = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofNanos(period))
+                    .recordStats()
+                    .build();
+            this.leases = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofNanos(period))
+                    .recordStats()
+                    .build();
+            // O Prometheus exige as mesmas chaves de tag em todos os cache.*: a rota vai em "type"
+            CaffeineCacheMetrics.monitor(registry, clients, "rate-limit.clients", Tags.of("type", name));
+            CaffeineCacheMetrics.monitor(registry, leases, "rate-limit.leases", Tags.of("type", name));
+            this.rejections = Counter.builder("rate-limit.rejections")
+                    .description("Requisições recusadas com 429")
+                    .tags(Tags.of("route", name))
+                    .register(registry);
+        }
+
+        public long getLimit() { return limit; }
+
+        public void rejected() {
+            rejections.increment();
+        }
+
+        /**
+         * Custo da requisição a partir do parâmetro configurado na query crua (sem decodificar):
+         * {@code ceil(valor / cost-unit)}, limitado ao intervalo entre 1 e o limite da rota. Sem o
+         * parâmetro, ou com um valor que não é um número, o custo é 1. A query é lida no lugar, sem
+         * montar o mapa de parâmetros da requisição.
+         */
+        public int cost(String query) {
+            int start = valueStart(query);
+            if (start < 0) {
+                return 1;
+            }
+            long ceiling = limit * costUnit;
+            long amount = 0;
+            int end = start;
+            for (; end < query.length() && query.charAt(end) != '&'; end++) {
+                char c = query.charAt(end);
+                if (c < '0' || c > '9') {
+                    return 1;
+                }
+                // Acima do teto o custo já é o limite: para de acumular antes de estourar o long
+                amount = amount >= ceiling ? ceiling : amount * 10 + (c - '0');
+            }
+            if (end == start) {
+                return 1;
+            }
+            long cost = (amount + costUnit - 1) / costUnit;
+            return (int) Math.max(1, Math.min(cost, limit));
+        }
+
+        // Início do valor da primeira ocorrência de costParam na query, ou -1
+        private int valueStart(String query) {
+            if (costParam == null || query == null) {
+                return -1;
+            }
+            int length = costParam.length();
+            int i = 0;
+            while (true) {
+                if (query.startsWith(costParam, i) && i + length < query.length() && query.charAt(i + length) == '=') {
+                    return i + length + 1;
+                }
+                int next = query.indexOf('&', i);
+                if (next < 0) {
+                    return -1;
+                }
+                i = next + 1;
+            }
+        }
+
+        /**
+         * Consome {@code cost} unidades do cliente. Retorna as unidades restantes (zero ou mais)
+         * quando a requisição é aceita, ou o negativo dos nanossegundos até que seja aceita.
+         */
+        public long acquire(String client, int cost) {
+            if (backend != null) {
+                return leases.get(client, k -> new Lease()).take(this, client, cost);
+            }
+            AtomicLong tat = clients.get(client, k -> new AtomicLong(Long.MIN_VALUE));
+            long increment = interval * cost;
+            while (true) {
+                long now = clock.getAsLong();
+                long current = tat.get();
+                long next = Math.max(current, now) + increment;
+                long allowedAt = next - period;
+                if (allowedAt > now) {
+                    return -(allowedAt - now);
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return (now + period - next) / interval;
+                }
+            }
+        }
+
+        private long lease(String client, int cost) {
+            return backend.lease(path + '|' + client, cost, Math.max(leaseSize, cost), limit, Duration.ofNanos(period));
+        }
+    }
+
+    /**
+     * Unidades arrendadas do backend compartilhado para um cliente. Valem por um período: depois
+     * disso as que sobraram são descartadas, pois o backend já as conta como gastas. Renovado antes
+     * disso, o lote novo se soma à sobra.
+     */
+    static final class Lease {
+
+        private final AtomicLong tokens = new AtomicLong();
+        private final ReentrantLock renewal = new ReentrantLock();
+        private volatile long expiresAt;
+        // Após uma recusa do backend, o cliente é recusado localmente até este instante
+        private volatile long deniedUntil;
+        private volatile boolean leased;
+
+        long take(Route route, String client, int cost) {
+            long spent = spend(route, cost);
+            if (spent >= 0) {
+                return spent;
+            }
+            long wait = deniedUntil - route.clock.getAsLong();
+            if (wait > 0) {
+                return -wait;
+            }
+            // Só uma requisição por cliente renova o lote; as demais esperam e usam o resultado
+            renewal.lock();
+            try {
+                spent = spend(route, cost);
+                if (spent >= 0) {
+                    return spent;
+                }
+                long granted = route.lease(client, cost);
+                if (granted < 0) {
+                    deniedUntil = route.clock.getAsLong() - granted;
+                    return granted;
+                }
+                long now = route.clock.getAsLong();
+                long remaining;
+                if (leased && now - expiresAt < 0) {
+                    // Lote ainda válido: a sobra, menor que o custo, soma-se ao novo em vez de se perder
+                    remaining = tokens.addAndGet(granted - cost);
+                } else {
+                    remaining = granted - cost;
+                    tokens.set(remaining);
+                }
+                expiresAt = now + route.period;
+                leased = true;
+                return remaining;
+            } finally {
+                renewal.unlock();
+            }
+        }
+
+        private long spend(Route route, int cost) {
+            if (!leased || route.clock.getAsLong() - expiresAt >= 0) {
+                return -1;
+            }
+            while (true) {
+                long current = tokens.get();
+                if (current < cost) {
+                    return -1;
+                }
+                if (tokens.compareAndSet(current, current - cost)) {
+                    return current - cost;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package org.acme.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.acme.events.EntitiesCreated;
+import org.acme.events.EntityChanged;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache dos totais usados nas respostas de busca, por tipo de entidade e filtro normalizado.
+ * Qualquer escrita confirmada no tipo invalida todos os seus totais; as feitas em outras réplicas
+ * só aparecem quando o total expira ({@code search.count-cache.expire-after-write}).
+ */
+@ApplicationScoped
+public class CountCache {
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "search.count-cache.expire-after-write", defaultValue = "1m")
+    Duration expireAfterWrite;
+
+    private final Map<Class<?>, Counts> counts = new ConcurrentHashMap<>();
+
+    public long get(Class<?> type, String filterKey, LongSupplier counter) {
+        Counts entry = counts.computeIfAbsent(type, k -> new Counts(k.getSimpleName(), expireAfterWrite, registry));
+        Long cached = entry.cache.getIfPresent(filterKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = entry.generation.get();
+        long total = counter.getAsLong();
+        // Só guarda o valor se nenhuma escrita foi confirmada durante a contagem
+        if (entry.generation.get() == generation) {
+            entry.cache.put(filterKey, total);
+        }
+        return total;
+    }
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChanged event) {
+        invalidate(event.getType());
+    }
+
+    void onCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntitiesCreated event) {
+        invalidate(event.getType());
+    }
+
+    private void invalidate(Class<?> type) {
+        Counts entry = counts.get(type);
+        if (entry != null) {
+            entry.generation.incrementAndGet();
+            entry.cache.invalidateAll();
+        }
+    }
+
+    private static class Counts {
+        private final AtomicLong generation = new AtomicLong();
+        private final Cache<String, Long> cache;
+
+        Counts(String type, Duration expireAfterWrite, MeterRegistry registry) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(10_000)
+                    .expireAfterWrite(expireAfterWrite)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(registry, cache, "count-cache", Tags.of("type", type));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.acme.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Cursor opaco da paginação por keyset: guarda o campo de ordenação, a direção e
+ * os valores (chave de ordenação e id) da última linha entregue.
+ * Valores nulos são tratados como os menores, em ambas as direções.
+ */
+public class Cursor {
+
+    private static final char SEPARATOR = '|';
+    private static final String NULL_MARKER = "~";
+
+    private final String sort;
+    private final boolean descending;
+    private final String value;
+    private final long id;
+
+    private Cursor(String sort, boolean descending, String value, long id) {
+        this.sort = sort;
+        this.descending = descending;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static Cursor after(String sort, boolean descending, Object value, long id) {
+        return new Cursor(sort, descending, value == null ? null : String.valueOf(value), id);
+    }
+
+    public static Cursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+        int first = raw.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : raw.indexOf(SEPARATOR, first + 1);
+        int third = second < 0 ? -1 : raw.indexOf(SEPARATOR, second + 1);
+        if (third < 0) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        String direction = raw.substring(first + 1, second);
+        if (!direction.equals("a") && !direction.equals("d")) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        long id;
+        try {
+            id = Long.parseLong(raw.substring(second + 1, third));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+        String value = raw.substring(third + 1);
+        if (value.equals(NULL_MARKER)) {
+            value = null;
+        } else if (value.startsWith("=")) {
+            value = value.substring(1);
+        } else {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return new Cursor(raw.substring(0, first), direction.equals("d"), value, id);
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + (descending ? "d" : "a") + SEPARATOR + id + SEPARATOR
+                + (value == null ? NULL_MARKER : "=" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSort() { return sort; }
+    public boolean isDescending() { return descending; }
+    public String getValue() { return value; }
+    public long getId() { return id; }
+
+    /**
+     * Ordenação estável usada tanto na paginação por offset quanto por cursor:
+     * o campo pedido (nulos como menores valores) seguido do id como desempate.
+     */
+    public static String orderBy(String alias, String field, boolean descending) {
+        String direction = descending ? " desc" : " asc";
+        if (field.equals("id")) {
+            return alias + ".id" + direction;
+        }
+        String nulls = descending ? " nulls last" : " nulls first";
+        return alias + "." + field + direction + nulls + ", " + alias + ".id" + direction;
+    }
+
+    /**
+     * Condição HQL equivalente a {@code (campo, id) > (valor, id)} (ou {@code <} quando
+     * decrescente), preenchendo os parâmetros nomeados em {@code params}.
+     */
+    public String seek(String alias, Object typedValue, Map<String, Object> params) {
+        params.put("cursorId", id);
+        String op = descending ? "<" : ">";
+        String key = alias + "." + sort;
+        String idKey = alias + ".id";
+        if (sort.equals("id")) {
+            return idKey + " " + op + " :cursorId";
+        }
+        if (typedValue == null) {
+            // O H2 não encontra nenhuma linha quando percorre ao contrário um índice (campo, id) com
+            // "campo is null"; dentro do case a condição não vira busca no índice
+            return descending
+                    ? "(case when " + key + " is null then 1 else 0 end = 1 and " + idKey + " < :cursorId)"
+                    : "(" + key + " is not null or " + idKey + " > :cursorId)";
+        }
+        params.put("cursorValue", typedValue);
+        if (!descending) {
+            // O "campo >=" redundante dá ao banco o início do intervalo no índice (campo, id)
+            return "(" + key + " >= :cursorValue and (" + key + " > :cursorValue or " + idKey + " > :cursorId))";
+        }
+        // Decrescente os nulos vêm depois de todos os valores, e o "or is null" impede um intervalo no índice
+        return "(" + key + " < :cursorValue or (" + key + " = :cursorValue and " + idKey + " < :cursorId) or " + key + " is null)";
+    }
+}
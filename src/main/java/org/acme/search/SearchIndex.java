@@ -0,0 +1,205 @@
+package org.acme.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.acme.Artista;
+import org.acme.GeneroMusical;
+import org.acme.Musica;
+import org.acme.events.EntitiesCreated;
+import org.acme.events.EntityChanged;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantém os índices de trigramas usados pelos endpoints de busca. Os índices ficam em memória,
+ * um por JVM: são carregados na inicialização, atualizados de forma incremental após cada commit
+ * local e recarregados por inteiro a cada {@code search.index.rebuild-interval}, que limita por
+ * quanto tempo uma escrita feita em outra réplica fica invisível nas buscas desta.
+ * Termos cujo resultado passa de {@code search.index.max-candidates} ids ficam com os primeiros
+ * nessa quantidade, em ordem de id: a consulta continua limitada a um {@code in (...)} desse tamanho,
+ * em vez de percorrer a tabela inteira para ordenar e contar todas as ocorrências.
+ */
+@ApplicationScoped
+public class SearchIndex {
+
+    private static final Logger LOG = Logger.getLogger(SearchIndex.class);
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "search.index.max-candidates", defaultValue = "1000")
+    int maxCandidates;
+
+    private volatile Indexes current = new Indexes();
+    // Índices em carga; recebem também as alterações locais, para que nenhuma se perca na troca
+    private volatile Indexes loading;
+
+    public boolean supports(String q) {
+        return TrigramIndex.supports(q);
+    }
+
+    /**
+     * Ids das músicas que contêm o termo, em ordem crescente e limitados aos primeiros {@code max-candidates}.
+     */
+    public List<Long> musicas(String q) {
+        return current.musicas.search(q, maxCandidates);
+    }
+
+    /**
+     * Ids dos artistas que contêm o termo, em ordem crescente e limitados aos primeiros {@code max-candidates}.
+     */
+    public List<Long> artistas(String q) {
+        return current.artistas.search(q, maxCandidates);
+    }
+
+    /**
+     * Ids dos gêneros que contêm o termo, em ordem crescente e limitados aos primeiros {@code max-candidates}.
+     */
+    public List<Long> generos(String q) {
+        return current.generos.search(q, maxCandidates);
+    }
+
+    // A carga lê as tabelas inteiras numa transação só, que em catálogos grandes passa do timeout padrão
+    @Transactional
+    @TransactionConfiguration(timeoutFromConfigProperty = "search.index.load-timeout")
+    void onStart(@Observes StartupEvent event) {
+        load();
+    }
+
+    @Transactional
+    @TransactionConfiguration(timeoutFromConfigProperty = "search.index.load-timeout")
+    @Scheduled(every = "${search.index.rebuild-interval:5m}", delay = 1, delayUnit = TimeUnit.MINUTES,
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void rebuild() {
+        load();
+    }
+
+    private synchronized void load() {
+        Timer.Sample sample = Timer.start(registry);
+        Indexes next = new Indexes();
+        loading = next;
+        try {
+            for (Class<?> type : List.of(Musica.class, Artista.class, GeneroMusical.class)) {
+                TrigramIndex index = next.of(type);
+                em.createQuery(textQuery(type), Object[].class)
+                        .getResultStream()
+                        .forEach(row -> put(index, row));
+            }
+            current = next;
+        } finally {
+            loading = null;
+        }
+
+        long elapsed = sample.stop(Timer.builder("search.index.load")
+                .description("Carga completa dos índices de busca, na inicialização e a cada recarga")
+                .register(registry));
+        LOG.infof("Índice de busca carregado em %d ms: %d músicas, %d artistas, %d gêneros",
+                TimeUnit.NANOSECONDS.toMillis(elapsed), next.musicas.size(), next.artistas.size(), next.generos.size());
+    }
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChanged event) {
+        apply(current, event);
+        Indexes next = loading;
+        if (next != null) {
+            apply(next, event);
+        }
+    }
+
+    /**
+     * Inserções em lote: o evento só traz os ids, então os textos indexados são lidos de novo do banco.
+     */
+    void onCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntitiesCreated event) {
+        if (current.of(event.getType()) == null) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(event.getIds().length);
+        for (long id : event.getIds()) {
+            ids.add(id);
+        }
+        List<Object[]> rows = QuarkusTransaction.requiringNew().call(() ->
+                em.createQuery(textQuery(event.getType()) + " where e.id in :ids", Object[].class)
+                        .setParameter("ids", ids)
+                        .getResultList());
+        for (Indexes indexes : new Indexes[]{current, loading}) {
+            TrigramIndex index = indexes == null ? null : indexes.of(event.getType());
+            if (index != null) {
+                rows.forEach(row -> put(index, row));
+            }
+        }
+    }
+
+    // Id seguido dos textos indexados do tipo
+    private static String textQuery(Class<?> type) {
+        if (type == Musica.class) {
+            return "select e.id, e.titulo from Musica e";
+        }
+        if (type == Artista.class) {
+            return "select e.id, e.nomeArtistico, e.paisDeOrigem from Artista e";
+        }
+        return "select e.id, e.nome, e.descricao from GeneroMusical e";
+    }
+
+    private static void put(TrigramIndex index, Object[] row) {
+        String[] texts = new String[row.length - 1];
+        for (int i = 1; i < row.length; i++) {
+            texts[i - 1] = (String) row[i];
+        }
+        index.put((Long) row[0], texts);
+    }
+
+    private static void apply(Indexes indexes, EntityChanged event) {
+        TrigramIndex index = indexes.of(event.getType());
+        if (index == null) {
+            return;
+        }
+        if (event.getKind() == EntityChanged.Kind.DELETED) {
+            index.remove(event.getId());
+            return;
+        }
+
+        Object entity = event.getEntity();
+        if (entity instanceof Musica m) {
+            index.put(event.getId(), m.titulo);
+        } else if (entity instanceof Artista a) {
+            index.put(event.getId(), a.nomeArtistico, a.paisDeOrigem);
+        } else if (entity instanceof GeneroMusical g) {
+            index.put(event.getId(), g.nome, g.descricao);
+        }
+    }
+
+    private static final class Indexes {
+        private final TrigramIndex musicas = new TrigramIndex();
+        private final TrigramIndex artistas = new TrigramIndex();
+        private final TrigramIndex generos = new TrigramIndex();
+
+        TrigramIndex of(Class<?> type) {
+            if (type == Musica.class) {
+                return musicas;
+            }
+            if (type == Artista.class) {
+                return artistas;
+            }
+            if (type == GeneroMusical.class) {
+                return generos;
+            }
+            return null;
+        }
+    }
+}
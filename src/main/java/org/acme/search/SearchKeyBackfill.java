@@ -0,0 +1,80 @@
+package org.acme.search;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.hibernate.query.MutationQuery;
+import org.jboss.logging.Logger;
+
+import java.util.List;
+
+/**
+ * Preenche, na inicialização, as colunas de busca normalizadas das linhas gravadas sem passar
+ * pelas entidades (import.sql, cargas diretas no banco ou linhas anteriores às colunas).
+ * Cada lote roda em sua transação e a atualização não incrementa a versão das entidades.
+ */
+@ApplicationScoped
+public class SearchKeyBackfill {
+
+    private static final Logger LOG = Logger.getLogger(SearchKeyBackfill.class);
+
+    @Inject
+    Session session;
+
+    @ConfigProperty(name = "search.backfill-batch-size", defaultValue = "500")
+    int batchSize;
+
+    void onStart(@Observes StartupEvent event) {
+        int musicas = backfill("Musica", new String[]{"titulo"}, new String[]{"tituloBusca"});
+        int artistas = backfill("Artista", new String[]{"nomeArtistico", "paisDeOrigem"},
+                new String[]{"nomeArtisticoBusca", "paisDeOrigemBusca"});
+        int generos = backfill("GeneroMusical", new String[]{"nome", "descricao"},
+                new String[]{"nomeBusca", "descricaoBusca"});
+        if (musicas + artistas + generos > 0) {
+            LOG.infof("Colunas de busca preenchidas: %d músicas, %d artistas, %d gêneros", musicas, artistas, generos);
+        }
+    }
+
+    /**
+     * A primeira coluna de origem é obrigatória na entidade, então a primeira coluna de busca
+     * nula identifica as linhas ainda não normalizadas.
+     */
+    private int backfill(String entity, String[] sources, String[] targets) {
+        StringBuilder select = new StringBuilder("select e.id");
+        for (String source : sources) {
+            select.append(", e.").append(source);
+        }
+        select.append(" from ").append(entity).append(" e where e.").append(targets[0]).append(" is null");
+
+        StringBuilder update = new StringBuilder("update ").append(entity).append(" e set ");
+        for (int i = 0; i < targets.length; i++) {
+            update.append(i == 0 ? "" : ", ").append("e.").append(targets[i]).append(" = :v").append(i);
+        }
+        update.append(" where e.id = :id");
+
+        int total = 0;
+        int filled;
+        do {
+            filled = QuarkusTransaction.requiringNew().call(() -> {
+                List<Object[]> rows = session.createSelectionQuery(select.toString(), Object[].class)
+                        .setMaxResults(batchSize)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    MutationQuery mutation = session.createMutationQuery(update.toString())
+                            .setParameter("id", row[0]);
+                    for (int i = 0; i < targets.length; i++) {
+                        mutation.setParameter("v" + i, TextNormalizer.normalize((String) row[i + 1]));
+                    }
+                    mutation.executeUpdate();
+                }
+                return rows.size();
+            });
+            total += filled;
+        } while (filled >= batchSize);
+        return total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package org.acme.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Forma de comparação dos textos buscados: minúsculas e sem diacríticos, para que
+ * "Beyoncé", "beyonce" e "BEYONCÉ" sejam equivalentes. A mesma forma é gravada nas colunas
+ * de busca das entidades e usada pelos índices de trigramas.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,240 @@
+package org.acme.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas para buscas por substring.
+ * Cada trigrama aponta para a lista ordenada de ids que o contêm; uma busca intersecta
+ * as listas dos trigramas do termo e confirma o resultado contra o texto indexado.
+ */
+public class TrigramIndex {
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+
+    public static String normalize(String text) {
+        return text == null ? "" : TextNormalizer.normalize(text);
+    }
+
+    public static boolean supports(String q) {
+        return q != null && normalize(q.trim()).length() >= MIN_QUERY_LENGTH;
+    }
+
+    public void put(long id, String... fields) {
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = normalize(fields[i]);
+        }
+        Set<Long> grams = trigrams(normalized);
+
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.put(id, normalized);
+            Set<Long> previousGrams = previous == null ? Set.of() : trigrams(previous);
+
+            for (Long gram : previousGrams) {
+                if (!grams.contains(gram)) {
+                    PostingList list = postings.get(gram);
+                    if (list != null && list.remove(id) && list.size() == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            for (Long gram : grams) {
+                if (!previousGrams.contains(gram)) {
+                    postings.computeIfAbsent(gram, k -> new PostingList()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (Long gram : trigrams(previous)) {
+                PostingList list = postings.get(gram);
+                if (list != null && list.remove(id) && list.size() == 0) {
+                    postings.remove(gram);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna, em ordem crescente, os ids cujo texto de algum campo contém {@code q}.
+     */
+    public List<Long> search(String q) {
+        return search(q, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Como {@link #search(String)}, mas para nos primeiros {@code limit} ids, para que termos muito
+     * comuns não virem um {@code in (...)} gigante na consulta.
+     */
+    public List<Long> search(String q, int limit) {
+        String term = normalize(q.trim());
+        Set<Long> grams = trigrams(new String[]{term});
+        List<Long> result = new ArrayList<>();
+        if (grams.isEmpty()) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(grams.size());
+            for (Long gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list == null) {
+                    return result;
+                }
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            long[] candidates = lists.get(0).toArray();
+            int count = candidates.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = lists.get(i).retainAll(candidates, count);
+            }
+
+            for (int i = 0; i < count; i++) {
+                long id = candidates[i];
+                for (String field : documents.get(id)) {
+                    if (field.contains(term)) {
+                        result.add(id);
+                        break;
+                    }
+                }
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<Long> trigrams(String[] fields) {
+        Set<Long> grams = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + MIN_QUERY_LENGTH <= field.length(); i++) {
+                grams.add(((long) field.charAt(i) << 32)
+                        | ((long) field.charAt(i + 1) << 16)
+                        | field.charAt(i + 2));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Lista de ids mantida ordenada em um array primitivo. Como os ids crescem
+     * monotonicamente, a inserção é quase sempre um append.
+     */
+    static final class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            int insertAt = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        /**
+         * Mantém em {@code candidates} apenas os ids presentes nesta lista, avançando
+         * por galope, e retorna quantos sobraram.
+         */
+        int retainAll(long[] candidates, int count) {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < count && from < size; i++) {
+                long id = candidates[i];
+                int bound = 1;
+                while (from + bound < size && ids[from + bound] < id) {
+                    bound <<= 1;
+                }
+                int pos = Arrays.binarySearch(ids, from, Math.min(from + bound + 1, size), id);
+                if (pos >= 0) {
+                    candidates[kept++] = id;
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+            }
+            return kept;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
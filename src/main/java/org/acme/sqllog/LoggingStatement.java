@@ -0,0 +1,450 @@
+package org.acme.sqllog;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * Statement do {@link SlowQueryDriver}: delega tudo ao statement real e mede só as chamadas
+ * {@code execute*}, cujo tempo vai para a invocação corrente ({@link QueryOriginInterceptor}) e,
+ * se for lento ou sorteado, para o {@link StatementLog}. Nas consultas o {@link ResultSet} só é
+ * envolvido, para contar as linhas e somar o tempo dos {@code next()}, quando a execução vai para o log.
+ */
+class LoggingStatement implements Statement {
+
+    private final Connection connection;
+    private final Statement statement;
+    // Comando dos lotes em executeBatch; nos prepared statements, o próprio SQL preparado
+    String batchSql;
+    int batches;
+
+    LoggingStatement(Connection connection, Statement statement) {
+        this.connection = connection;
+        this.statement = statement;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        long start = System.nanoTime();
+        ResultSet result = statement.executeQuery(sql);
+        return queried(sql, result, System.nanoTime() - start);
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        long start = System.nanoTime();
+        int rows = statement.executeUpdate(sql);
+        executed(sql, rows, System.nanoTime() - start, 0);
+        return rows;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        long start = System.nanoTime();
+        long rows = statement.executeLargeUpdate(sql);
+        executed(sql, rows, System.nanoTime() - start, 0);
+        return rows;
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        long start = System.nanoTime();
+        boolean result = statement.execute(sql);
+        executed(sql, -1, System.nanoTime() - start, 0);
+        return result;
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        int rows = statement.executeUpdate(sql, autoGeneratedKeys);
+        executed(sql, rows, System.nanoTime() - start, 0);
+        return rows;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        long rows = statement.executeLargeUpdate(sql, autoGeneratedKeys);
+        executed(sql, rows, System.nanoTime() - start, 0);
+        return rows;
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        boolean result = statement.execute(sql, autoGeneratedKeys);
+        executed(sql, -1, System.nanoTime() - start, 0);
+        return result;
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long start = System.nanoTime();
+        int rows = statement.executeUpdate(sql, columnIndexes);
+        executed(sql, rows, System.nanoTime() - start, 0);
+        return rows;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long start = System.nanoTime();
+        long rows = statement.executeLargeUpdate(sql, columnIndexes);
+        executed(sql, rows, System.nanoTime() - start, 0);
+        return rows;
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        long start = System.nanoTime();
+        boolean result = statement.execute(sql, columnIndexes);
+        executed(sql, -1, System.nanoTime() - start, 0);
+        return result;
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        long start = System.nanoTime();
+        int rows = statement.executeUpdate(sql, columnNames);
+        executed(sql, rows, System.nanoTime() - start, 0);
+        return rows;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        long start = System.nanoTime();
+        long rows = statement.executeLargeUpdate(sql, columnNames);
+        executed(sql, rows, System.nanoTime() - start, 0);
+        return rows;
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        long start = System.nanoTime();
+        boolean result = statement.execute(sql, columnNames);
+        executed(sql, -1, System.nanoTime() - start, 0);
+        return result;
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        statement.addBatch(sql);
+        batchSql = sql;
+        batches++;
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        statement.clearBatch();
+        batches = 0;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        long start = System.nanoTime();
+        int[] counts = statement.executeBatch();
+        long elapsed = System.nanoTime() - start;
+        long rows = 0;
+        for (int count : counts) {
+            rows += Math.max(count, 0);
+        }
+        executed(batchSql, rows, elapsed, batches);
+        batches = 0;
+        return counts;
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        long start = System.nanoTime();
+        long[] counts = statement.executeLargeBatch();
+        long elapsed = System.nanoTime() - start;
+        long rows = 0;
+        for (long count : counts) {
+            rows += Math.max(count, 0);
+        }
+        executed(batchSql, rows, elapsed, batches);
+        batches = 0;
+        return counts;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        statement.close();
+    }
+
+    /**
+     * Registra uma execução sem resultado a ler: o tempo já é o total.
+     */
+    final void executed(String sql, long rows, long elapsedNanos, int batches) {
+        QueryOriginInterceptor.Invocation invocation = QueryOriginInterceptor.current();
+        if (invocation != null) {
+            invocation.add(elapsedNanos);
+        }
+        StatementLog.record(sql, statement, batches, rows, elapsedNanos, StatementLog.sample(), origin(invocation));
+    }
+
+    /**
+     * Registra uma consulta. Fora da amostra e abaixo do limite no execute, o resultado volta como veio.
+     */
+    final ResultSet queried(String sql, ResultSet result, long elapsedNanos) {
+        QueryOriginInterceptor.Invocation invocation = QueryOriginInterceptor.current();
+        if (invocation != null) {
+            invocation.add(elapsedNanos);
+        }
+        boolean sampled = StatementLog.sample();
+        if (!sampled && !StatementLog.isSlow(elapsedNanos)) {
+            return result;
+        }
+        return (ResultSet) Proxy.newProxyInstance(LoggingStatement.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                new CountingResultSet(result, statement, sql, elapsedNanos, sampled, origin(invocation)));
+    }
+
+    private static String origin(QueryOriginInterceptor.Invocation invocation) {
+        return invocation == null ? "-" : invocation.origin;
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return statement.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        statement.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return statement.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        statement.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        statement.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return statement.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        statement.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        statement.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return statement.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        statement.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        statement.setCursorName(name);
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return statement.getResultSet();
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return statement.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return statement.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        statement.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return statement.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        statement.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return statement.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return statement.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return statement.getResultSetType();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return statement.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return statement.getGeneratedKeys();
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return statement.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return statement.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        statement.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return statement.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        statement.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return statement.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return statement.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        statement.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return statement.getLargeMaxRows();
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return statement.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return statement.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return statement.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return statement.enquoteNCharLiteral(val);
+    }
+
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : statement.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || statement.isWrapperFor(iface);
+    }
+
+    /**
+     * Conta as linhas lidas de uma consulta que vai para o log e registra no close, com o tempo do
+     * execute somado ao dos {@code next()}.
+     */
+    private static final class CountingResultSet implements InvocationHandler {
+
+        private final ResultSet resultSet;
+        private final Statement statement;
+        private final String sql;
+        private final boolean sampled;
+        private final String origin;
+        private long elapsed;
+        private long rows;
+        private boolean recorded;
+
+        CountingResultSet(ResultSet resultSet, Statement statement, String sql, long executeNanos, boolean sampled,
+                          String origin) {
+            this.resultSet = resultSet;
+            this.statement = statement;
+            this.sql = sql;
+            this.elapsed = executeNanos;
+            this.sampled = sampled;
+            this.origin = origin;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (name.equals("next")) {
+                elapsed += System.nanoTime() - start;
+                if (Boolean.TRUE.equals(result)) {
+                    rows++;
+                }
+            } else if (name.equals("close") && !recorded) {
+                recorded = true;
+                StatementLog.record(sql, statement, 0, rows, elapsed, sampled, origin);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.acme.sqllog;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guarda, durante a execução de um método anotado com {@link QueryOrigin}, qual método é esse,
+ * para que o log de SQL saiba de onde veio cada consulta. As consultas do Hibernate rodam na
+ * mesma thread do método, então basta um ThreadLocal. Ao final, o tempo no driver JDBC e o número
+ * de comandos da invocação vão para {@code sql.request.time} e {@code sql.request.statements}.
+ * <p>
+ * As métricas cobrem só o que roda dentro do método de resource. Ficam de fora, e aparecem no log com
+ * origem {@code -}: os comandos dos filtros (idempotência, cota JDBC do rate limit), dos jobs agendados
+ * e das respostas em streaming, que terminam depois do método. O tempo é o das chamadas {@code execute*}
+ * (ver {@link SlowQueryDriver}), não o de espera por conexão nem o de leitura das linhas.
+ */
+@QueryOrigin
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class QueryOriginInterceptor {
+
+    private static final ThreadLocal<Invocation> CURRENT = new ThreadLocal<>();
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Invocação corrente, ou null fora de um método anotado.
+     */
+    static Invocation current() {
+        return CURRENT.get();
+    }
+
+    @AroundInvoke
+    Object track(InvocationContext context) throws Exception {
+        Invocation previous = CURRENT.get();
+        Method method = context.getMethod();
+        Meters methodMeters = meters.computeIfAbsent(method, this::meters);
+        Invocation invocation = new Invocation(methodMeters.origin);
+        CURRENT.set(invocation);
+        try {
+            return context.proceed();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+            // Consultas de respostas em streaming terminam depois do método e ficam de fora
+            methodMeters.time.record(invocation.nanos, TimeUnit.NANOSECONDS);
+            methodMeters.statements.record(invocation.statements);
+        }
+    }
+
+    private Meters meters(Method method) {
+        String origin = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new Meters(origin,
+                Timer.builder("sql.request.time")
+                        .description("Tempo no driver JDBC (execute) dos comandos do método de resource")
+                        .tag("method", origin)
+                        .register(registry),
+                DistributionSummary.builder("sql.request.statements")
+                        .description("Comandos SQL executados pelo método de resource, sem os dos filtros")
+                        .tag("method", origin)
+                        .register(registry));
+    }
+
+    private record Meters(String origin, Timer time, DistributionSummary statements) {
+    }
+
+    static final class Invocation {
+        final String origin;
+        private int statements;
+        private long nanos;
+
+        Invocation(String origin) {
+            this.origin = origin;
+        }
+
+        void add(long elapsedNanos) {
+            statements++;
+            nanos += elapsedNanos;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package org.acme.sqllog;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.logging.Logger;
+
+/**
+ * Driver JDBC que envolve o driver real para medir cada execução e passá-la ao {@link StatementLog}.
+ * Usado com URLs {@code jdbc:slowlog:<url do driver real>}, por exemplo {@code jdbc:slowlog:h2:mem:testdb}.
+ * A medição fica nos statements ({@link LoggingStatement}, {@link LoggingPreparedStatement}): classes
+ * que delegam cada método diretamente, sem reflexão, e só cronometram as chamadas {@code execute*}.
+ * O tempo de uma execução é o do {@code execute*}. Só as consultas que vão para o log (lentas já no
+ * execute ou sorteadas) têm o {@link java.sql.ResultSet} envolvido, para contar as linhas e somar
+ * o tempo dos {@code next()}; uma consulta rápida no execute e lenta na leitura não aparece.
+ */
+public class SlowQueryDriver implements Driver {
+
+    private static final String PREFIX = "jdbc:slowlog:";
+
+    static {
+        try {
+            DriverManager.registerDriver(new SlowQueryDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        String target = "jdbc:" + url.substring(PREFIX.length());
+        Connection connection = delegate(target).connect(target, info);
+        return connection == null ? null : new LoggingConnection(connection);
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        String target = "jdbc:" + url.substring(PREFIX.length());
+        return delegate(target).getPropertyInfo(target, info);
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private static Driver delegate(String url) throws SQLException {
+        try {
+            return DriverManager.getDriver(url);
+        } catch (SQLException e) {
+            // O DriverManager não enxerga drivers de outro classloader, como o da aplicação
+            for (Driver driver : ServiceLoader.load(Driver.class, Thread.currentThread().getContextClassLoader())) {
+                if (!(driver instanceof SlowQueryDriver) && driver.acceptsURL(url)) {
+                    return driver;
+                }
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.acme.sqllog;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decide quais execuções de SQL são logadas: todas as que passam de {@code sql-log.slow-threshold}
+ * e uma amostra de {@code sql-log.sample-rate} das demais. Cada entrada traz o tempo, as linhas,
+ * os tipos dos parâmetros (sem os valores) e o método de resource de origem. Nada disso é montado
+ * para as execuções que não vão para o log.
+ */
+final class StatementLog {
+
+    private static final Logger LOG = Logger.getLogger("org.acme.sqllog");
+
+    private static final long SLOW_NANOS;
+    private static final double SAMPLE_RATE;
+
+    static {
+        Config config = ConfigProvider.getConfig();
+        SLOW_NANOS = config.getOptionalValue("sql-log.slow-threshold", Duration.class)
+                .orElse(Duration.ofMillis(200)).toNanos();
+        SAMPLE_RATE = config.getOptionalValue("sql-log.sample-rate", Double.class).orElse(0.0);
+    }
+
+    private StatementLog() {
+    }
+
+    /**
+     * Sorteia, antes da execução, se ela entra na amostra independentemente do tempo.
+     */
+    static boolean sample() {
+        return SAMPLE_RATE > 0 && ThreadLocalRandom.current().nextDouble() < SAMPLE_RATE;
+    }
+
+    static boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= SLOW_NANOS;
+    }
+
+    static void record(String sql, Statement statement, int batches, long rows, long elapsedNanos,
+                       boolean sampled, String origin) {
+        boolean slow = isSlow(elapsedNanos);
+        if (!slow && !sampled) {
+            return;
+        }
+        String entry = String.format("%.1f ms, %s linhas%s, origem %s, parâmetros %s: %s",
+                elapsedNanos / 1e6,
+                rows < 0 ? "?" : Long.toString(rows),
+                batches > 0 ? " em " + batches + " lotes" : "",
+                origin,
+                shapes(statement),
+                sql);
+        if (slow) {
+            LOG.warn("SQL lento: " + entry);
+        } else {
+            LOG.info("SQL amostrado: " + entry);
+        }
+    }
+
+    // Só o tipo de cada parâmetro, segundo o driver: os valores podem ter dados pessoais
+    private static String shapes(Statement statement) {
+        if (!(statement instanceof PreparedStatement prepared)) {
+            return "[]";
+        }
+        StringBuilder shapes = new StringBuilder("[");
+        try {
+            ParameterMetaData metadata = prepared.getParameterMetaData();
+            for (int i = 1; i <= metadata.getParameterCount(); i++) {
+                if (i > 1) {
+                    shapes.append(", ");
+                }
+                String type = metadata.getParameterClassName(i);
+                shapes.append(type == null ? "?" : type.substring(type.lastIndexOf('.') + 1));
+            }
+        } catch (SQLException e) {
+            return "[?]";
+        }
+        return shapes.append(']').toString();
+    }
+}
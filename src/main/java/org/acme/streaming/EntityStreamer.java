@@ -0,0 +1,106 @@
+package org.acme.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Escreve o resultado de uma consulta diretamente na resposta, linha a linha,
+ * usando um scroll forward-only. A sessão é limpa periodicamente, de modo que o
+ * consumo de memória não depende do tamanho do catálogo.
+ */
+@ApplicationScoped
+public class EntityStreamer {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON_TYPE = MediaType.valueOf(APPLICATION_NDJSON);
+
+    private static final int FETCH_SIZE = 500;
+    private static final int CLEAR_EVERY = 500;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    ObjectMapper mapper;
+
+    public static boolean wantsNdjson(HttpHeaders headers) {
+        for (MediaType type : headers.getAcceptableMediaTypes()) {
+            if (!type.isWildcardType() && type.isCompatible(APPLICATION_NDJSON_TYPE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public <T> StreamingOutput stream(String hql, Class<T> type, boolean ndjson) {
+        return stream(hql, type, ndjson, (session, chunk) -> { });
+    }
+
+    /**
+     * Como {@link #stream(String, Class, boolean)}, mas lê as linhas em blocos e chama
+     * {@code beforeWrite} com cada bloco antes de escrevê-lo, para carregar as associações
+     * lazy do bloco inteiro de uma vez em vez de uma consulta por linha.
+     */
+    public <T> StreamingOutput stream(String hql, Class<T> type, boolean ndjson, BiConsumer<Session, List<T>> beforeWrite) {
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        return output -> {
+            try (Session session = sessionFactory.openSession();
+                 JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+                session.setDefaultReadOnly(true);
+                session.setCacheMode(CacheMode.IGNORE);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                if (!ndjson) {
+                    generator.writeStartArray();
+                }
+
+                try (ScrollableResults<T> rows = session.createSelectionQuery(hql, type)
+                        .setReadOnly(true)
+                        .setFetchSize(FETCH_SIZE)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    List<T> chunk = new ArrayList<>(CLEAR_EVERY);
+                    boolean more = rows.next();
+                    while (more) {
+                        chunk.add(rows.get());
+                        more = rows.next();
+                        if (chunk.size() == CLEAR_EVERY || !more) {
+                            beforeWrite.accept(session, chunk);
+                            for (T row : chunk) {
+                                writer.writeValue(generator, row);
+                                if (ndjson) {
+                                    generator.writeRaw('\n');
+                                }
+                            }
+                            chunk.clear();
+                            generator.flush();
+                            session.clear();
+                        }
+                    }
+                }
+
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+                generator.flush();
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package org.acme;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guarda o SQL que o Hibernate gera enquanto a captura está ligada, para que os testes examinem
+ * as consultas que os endpoints de fato executam.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class CapturedStatements implements StatementInspector {
+
+    private static final List<String> captured = new ArrayList<>();
+    private static boolean capturing;
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (captured) {
+            if (capturing) {
+                captured.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    public static void start() {
+        synchronized (captured) {
+            captured.clear();
+            capturing = true;
+        }
+    }
+
+    /**
+     * Encerra a captura e retorna os comandos gerados desde {@link #start()}, em ordem.
+     */
+    public static List<String> stop() {
+        synchronized (captured) {
+            capturing = false;
+            return new ArrayList<>(captured);
+        }
+    }
+}
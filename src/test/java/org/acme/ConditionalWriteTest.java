@@ -0,0 +1,42 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.acme.format.Format;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Confere que o If-Match de uma escrita aceita a ETag que o cliente recebeu no formato que negociou.
+ */
+@QuarkusTest
+class ConditionalWriteTest {
+
+    private static final String GENERO = "{\"nome\":\"Jazz\",\"descricao\":\"Improvisação, swing e harmonias complexas.\"}";
+
+    @Test
+    void ifMatchAceitaETagDoFormatoNegociado() {
+        String tag = given().accept(Format.APPLICATION_CBOR)
+                .when().get("/api/v1/generos-musicais/4")
+                .then().statusCode(200).header("ETag", endsWith("-cbor\""))
+                .extract().header("ETag");
+
+        String updated = given().accept(Format.APPLICATION_CBOR).contentType("application/json")
+                .header("If-Match", tag).body(GENERO)
+                .when().put("/api/v1/generos-musicais/4")
+                .then().statusCode(200).header("ETag", endsWith("-cbor\"")).header("ETag", not(tag))
+                .extract().header("ETag");
+
+        // A ETag anterior ficou velha, em qualquer formato
+        given().accept("application/json").contentType("application/json")
+                .header("If-Match", tag).body(GENERO)
+                .when().put("/api/v1/generos-musicais/4")
+                .then().statusCode(412);
+        given().accept("application/json").contentType("application/json")
+                .header("If-Match", updated).body(GENERO)
+                .when().put("/api/v1/generos-musicais/4")
+                .then().statusCode(200).header("ETag", not(endsWith("-cbor\"")));
+    }
+}
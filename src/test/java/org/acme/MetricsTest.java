@@ -0,0 +1,30 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * Confere que /q/metrics expõe a latência por endpoint, o banco por método de resource e os caches.
+ */
+@QuarkusTest
+class MetricsTest {
+
+    @Test
+    void expoeMetricasDeEndpointBancoECache() {
+        // A primeira chamada após a subida pode estourar o @Timeout de 500 ms e cair no fallback
+        given().when().get("/api/v1/musicas/1");
+        given().when().get("/api/v1/musicas/1").then().statusCode(200);
+
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("http_server_requests_seconds_bucket{"))
+                .body(containsString("uri=\"/api/v1/musicas/{id}\""))
+                .body(containsString("sql_request_statements_count{method=\"MusicaResource.getById\""))
+                .body(containsString("cache=\"response-cache.by-id\""));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import org.acme.format.Format;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Confere que os corpos em cache entram intactos na busca por vários ids, em JSON e em CBOR.
+ */
+@QuarkusTest
+class MultiGetTest {
+
+    @Test
+    void embuteOsItensEmJson() {
+        // A primeira chamada serializa e guarda no cache; a segunda só copia os bytes
+        for (int i = 0; i < 2; i++) {
+            given().accept("application/json")
+                    .when().get("/api/v1/generos-musicais?ids=2,999,1")
+                    .then()
+                    .statusCode(200)
+                    .body("Id", equalTo(List.of(2, 999, 1)))
+                    .body("Encontrado", equalTo(List.of(true, false, true)))
+                    .body("[0].Item.nome", equalTo("Pop"))
+                    .body("[2].Item.nome", equalTo("Rock"));
+        }
+    }
+
+    @Test
+    void embuteOsItensEmCbor() throws Exception {
+        byte[] body = given().accept(Format.APPLICATION_CBOR)
+                .when().get("/api/v1/generos-musicais?ids=1,999")
+                .then().statusCode(200)
+                .extract().asByteArray();
+
+        JsonNode items = new CBORMapper().readTree(body);
+        assertEquals(2, items.size());
+        assertTrue(items.get(0).get("Encontrado").asBoolean());
+        assertEquals("Rock", items.get(0).get("Item").get("nome").asText());
+        assertFalse(items.get(1).get("Encontrado").asBoolean());
+        assertTrue(items.get(1).path("Item").isMissingNode());
+    }
+}
@@ -0,0 +1,127 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Confere, pelo EXPLAIN do H2, o plano do SQL que os endpoints de busca de fato geram: o comando é
+ * capturado do Hibernate ({@link CapturedStatements}) durante a requisição e explicado com os
+ * parâmetros em aberto, como o banco o prepara.
+ */
+@QuarkusTest
+class QueryPlanTest {
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    Session session;
+
+    @Test
+    void buscaPorSubstringPercorreOIndiceDaOrdenacao() {
+        // Termo curto demais para o índice de trigramas: like '%termo%' na coluna normalizada. Não há
+        // intervalo possível no índice da coluna, mas a chave primária já está na ordem pedida e o LIMIT
+        // encerra a leitura assim que a página enche
+        String plan = plan("/api/v1/musicas/search?q=ab&size=2&includeTotal=false", "tituloBusca like");
+        assertUsesIndex(plan, "primary_key");
+        assertTrue(plan.contains("index sorted"), plan);
+        assertFalse(plan.contains("titulobusca >="), plan);
+    }
+
+    @Test
+    void buscaPeloIndiceDeTrigramasLeSoOsCandidatos() {
+        String plan = plan("/api/v1/musicas/search?q=love&size=2&includeTotal=false", "m1_0.id in (");
+        assertUsesIndex(plan, "primary_key");
+        assertTrue(plan.contains("id in("), plan);
+    }
+
+    @Test
+    void generosDaPaginaUsamIndiceDaAssociacao() {
+        String plan = plan("/api/v1/musicas/search?size=2&includeTotal=false", "join musica_genero");
+        assertUsesIndex(plan, "idx_musica_genero_musica: musica_id =");
+    }
+
+    @Test
+    void cursorCrescenteComecaNoValorDoCursor() {
+        String cursor = nextCursor("/api/v1/artistas/search?sort=nomeArtistico&size=1&includeTotal=false");
+        String plan = plan("/api/v1/artistas/search?size=1&includeTotal=false&cursor=" + cursor, "nomeArtistico>=");
+        assertUsesIndex(plan, "idx_artista_nome: nomeartistico >=");
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void cursorDecrescentePercorreOIndiceNaOrdem() {
+        // Com os nulos no fim não há um intervalo só: o índice (campo, id) é percorrido na ordem, sem ordenação
+        String cursor = nextCursor("/api/v1/artistas/search?sort=nomeArtistico&direction=desc&size=1&includeTotal=false");
+        String plan = plan("/api/v1/artistas/search?size=1&includeTotal=false&cursor=" + cursor, "nomeArtistico<");
+        assertUsesIndex(plan, "idx_artista_nome");
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void colunasDeBuscaSaoPreenchidasSemAcentos() {
+        Object nome = QuarkusTransaction.requiringNew().call(() ->
+                em.createNativeQuery("select nomeArtisticoBusca from Artista where id = 3").getSingleResult());
+        assertEquals("beyonce", nome);
+    }
+
+    private static String nextCursor(String url) {
+        String cursor = given().accept("application/json")
+                .when().get(url)
+                .then().statusCode(200)
+                .extract().path("NextCursor");
+        assertNotNull(cursor);
+        assertFalse(cursor.isEmpty());
+        return cursor;
+    }
+
+    /**
+     * Plano, em minúsculas, do comando gerado durante a requisição que contém {@code fragment}.
+     */
+    private String plan(String url, String fragment) {
+        List<String> statements;
+        CapturedStatements.start();
+        try {
+            given().accept("application/json").when().get(url).then().statusCode(200);
+        } finally {
+            statements = CapturedStatements.stop();
+        }
+        String sql = statements.stream()
+                .filter(statement -> statement.contains(fragment))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Nenhum comando com " + fragment + ": " + statements));
+        return explain(sql).toLowerCase(Locale.ROOT);
+    }
+
+    private String explain(String sql) {
+        AtomicReference<String> plan = new AtomicReference<>();
+        QuarkusTransaction.requiringNew().run(() -> session.doWork(connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("explain " + sql);
+                 ResultSet result = explain.executeQuery()) {
+                result.next();
+                plan.set(result.getString(1));
+            }
+        }));
+        return plan.get();
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.contains(index), "Plano sem " + index + ": " + plan);
+    }
+}
@@ -0,0 +1,77 @@
+package org.acme.batch;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.acme.GeneroMusical;
+import org.acme.search.SearchIndex;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Confere que um lote maior que um bloco é gravado por inteiro ou não é gravado, e que chega ao índice de busca.
+ */
+@QuarkusTest
+class BatchInserterTest {
+
+    @Inject
+    BatchInserter inserter;
+
+    @Inject
+    SearchIndex searchIndex;
+
+    @ConfigProperty(name = "batch-insert.chunk-size")
+    int chunkSize;
+
+    @Test
+    void falhaNoUltimoBlocoDesfazOsAnteriores() {
+        String prefixo = "lote-" + UUID.randomUUID();
+        List<GeneroMusical> generos = generos(prefixo, chunkSize + 1);
+        GeneroMusical ultimo = generos.get(generos.size() - 1);
+
+        assertThrows(IllegalStateException.class, () -> inserter.insert(GeneroMusical.class, generos,
+                genero -> {
+                    if (genero == ultimo) {
+                        throw new IllegalStateException("falha no segundo bloco");
+                    }
+                },
+                genero -> genero.id));
+
+        assertEquals(0, count(prefixo));
+    }
+
+    @Test
+    void gravaTodosOsBlocos() {
+        String prefixo = "lote-" + UUID.randomUUID();
+        List<Long> ids = inserter.insert(GeneroMusical.class, generos(prefixo, chunkSize + 1), genero -> { },
+                genero -> genero.id);
+
+        assertEquals(chunkSize + 1, ids.size());
+        assertEquals(chunkSize + 1, count(prefixo));
+        // O índice de busca relê os textos pelos ids do evento de cada bloco
+        assertEquals(Set.copyOf(ids), Set.copyOf(searchIndex.generos(prefixo)));
+    }
+
+    private static List<GeneroMusical> generos(String prefixo, int quantidade) {
+        List<GeneroMusical> generos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            GeneroMusical genero = new GeneroMusical();
+            genero.nome = prefixo + "-" + i;
+            genero.descricao = "Gênero de teste " + i;
+            generos.add(genero);
+        }
+        return generos;
+    }
+
+    private static long count(String prefixo) {
+        return QuarkusTransaction.requiringNew().call(() -> GeneroMusical.count("nome like ?1", prefixo + "%"));
+    }
+}
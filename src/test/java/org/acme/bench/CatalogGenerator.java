@@ -0,0 +1,289 @@
+package org.acme.bench;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import org.acme.search.TextNormalizer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera um catálogo sintético com {@code load-test.catalog.*} músicas, artistas e gêneros, por
+ * cima dos dados do import.sql. Roda na inicialização antes dos demais observadores, para que o
+ * índice de busca e os caches já partam do catálogo completo; com 0 músicas (o padrão) não faz nada.
+ * As distribuições imitam um catálogo real: poucos gêneros e artistas concentram a maior parte das
+ * músicas (Zipf), cada música tem de 1 a 3 gêneros e os títulos misturam palavras muito comuns
+ * com palavras raras, para que a busca tenha termos com muitos e com poucos resultados.
+ */
+@ApplicationScoped
+public class CatalogGenerator {
+
+    private static final Logger LOG = Logger.getLogger(CatalogGenerator.class);
+
+    // Acima dos ids do import.sql e do primeiro bloco que as sequences entregam depois dele
+    private static final long FIRST_ID = 1000;
+    private static final int BATCH_SIZE = 5000;
+
+    private static final List<String> COMMON_WORDS = List.of(
+            "amor", "love", "noite", "night", "coração", "heart", "sonho", "dream", "fogo", "fire",
+            "saudade", "baby", "vida", "life", "tempo", "time", "estrada", "road", "lua", "moon",
+            "mar", "sol", "chuva", "rain", "cidade", "city", "dança", "dance", "céu", "sky");
+
+    private static final List<String> GENRE_BASES = List.of(
+            "Rock", "Pop", "Jazz", "Samba", "Blues", "Funk", "Soul", "Forró", "Reggae", "Metal",
+            "Punk", "House", "Techno", "Folk", "Country", "MPB", "Bossa", "Trap", "Disco", "Gospel");
+
+    private static final List<String> GENRE_MODIFIERS = List.of(
+            "", "Indie", "Neo", "Alt", "Progressivo", "Experimental", "Lo-fi", "Psicodélico", "Acústico",
+            "Eletrônico", "Clássico", "Latino", "Nórdico", "Tropical", "Gótico", "Industrial", "Melódico",
+            "Instrumental", "Underground", "Retrô", "Fusion", "Hardcore", "Minimal", "Orquestral", "Regional");
+
+    private static final List<String> COUNTRIES = List.of(
+            "Brasil", "Estados Unidos", "Reino Unido", "Portugal", "Argentina", "México", "Canadá",
+            "Alemanha", "França", "Japão", "Coreia do Sul", "Austrália", "Suécia", "Nigéria", "Colômbia");
+
+    static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ra", "ve", "tu", "sa", "no", "bi", "le", "zo", "fa", "ri", "po", "da", "ne", "xi", "gu"};
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @ConfigProperty(name = "load-test.catalog.musicas", defaultValue = "0")
+    int musicas;
+
+    @ConfigProperty(name = "load-test.catalog.artistas", defaultValue = "100000")
+    int artistas;
+
+    @ConfigProperty(name = "load-test.catalog.generos", defaultValue = "500")
+    int generos;
+
+    @ConfigProperty(name = "load-test.catalog.seed", defaultValue = "42")
+    long seed;
+
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION) StartupEvent event) throws SQLException {
+        if (musicas <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            insertGeneros(connection, random);
+            insertArtistas(connection, random);
+            insertMusicas(connection, random);
+            try (Statement statement = connection.createStatement()) {
+                // Como o import.sql, deixa as sequences depois dos ids gerados
+                statement.execute("alter sequence genero_musical_seq restart with " + (lastGeneroId() + 101));
+                statement.execute("alter sequence perfil_artista_seq restart with " + (lastArtistaId() + 101));
+                statement.execute("alter sequence artista_seq restart with " + (lastArtistaId() + 101));
+                statement.execute("alter sequence musica_seq restart with " + (lastMusicaId() + 101));
+            }
+            connection.commit();
+        }
+        LOG.infof("Catálogo sintético gerado em %d s: %d músicas, %d artistas, %d gêneros",
+                (System.nanoTime() - start) / 1_000_000_000L, musicas, artistas, generos);
+    }
+
+    public long firstId() {
+        return FIRST_ID;
+    }
+
+    public long lastMusicaId() {
+        return FIRST_ID + musicas - 1;
+    }
+
+    public long lastArtistaId() {
+        return FIRST_ID + artistas - 1;
+    }
+
+    public long lastGeneroId() {
+        return FIRST_ID + generos - 1;
+    }
+
+    private void insertGeneros(Connection connection, Random random) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into GeneroMusical (id, nome, nomeBusca, descricao, descricaoBusca) values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < generos; i++) {
+                String modifier = GENRE_MODIFIERS.get((i / GENRE_BASES.size()) % GENRE_MODIFIERS.size());
+                String nome = (modifier + " " + GENRE_BASES.get(i % GENRE_BASES.size())).trim();
+                int round = i / (GENRE_BASES.size() * GENRE_MODIFIERS.size());
+                if (round > 0) {
+                    nome += " " + (round + 1);
+                }
+                String descricao = "Vertente " + word(random) + " de " + GENRE_BASES.get(i % GENRE_BASES.size());
+                insert.setLong(1, FIRST_ID + i);
+                insert.setString(2, nome);
+                insert.setString(3, TextNormalizer.normalize(nome));
+                insert.setString(4, descricao);
+                insert.setString(5, TextNormalizer.normalize(descricao));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private void insertArtistas(Connection connection, Random random) throws SQLException {
+        try (PreparedStatement perfil = connection.prepareStatement(
+                "insert into PerfilArtista (id, descricaoCarreira, estiloMusicalPrincipal, premiosEReconhecimentos) values (?, ?, ?, ?)");
+             PreparedStatement artista = connection.prepareStatement(
+                     "insert into Artista (id, nomeArtistico, nomeArtisticoBusca, nomeCompleto, dataDeEstreia,"
+                             + " paisDeOrigem, paisDeOrigemBusca, perfil_artista_id) values (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < artistas; i++) {
+                long id = FIRST_ID + i;
+                String nome = capitalize(word(random)) + " " + capitalize(word(random));
+                String pais = COUNTRIES.get(random.nextInt(COUNTRIES.size()));
+                String estilo = GENRE_BASES.get(random.nextInt(GENRE_BASES.size()));
+
+                perfil.setLong(1, id);
+                perfil.setString(2, "Artista de " + estilo + " em atividade desde os anos " + (1960 + random.nextInt(7) * 10) + ".");
+                perfil.setString(3, estilo);
+                perfil.setString(4, random.nextInt(10) == 0 ? "Prêmio " + capitalize(word(random)) : null);
+                perfil.addBatch();
+
+                artista.setLong(1, id);
+                artista.setString(2, nome);
+                artista.setString(3, TextNormalizer.normalize(nome));
+                artista.setString(4, nome + " " + capitalize(word(random)));
+                artista.setDate(5, Date.valueOf(LocalDate.of(1950 + random.nextInt(74), 1 + random.nextInt(12), 1 + random.nextInt(28))));
+                artista.setString(6, pais);
+                artista.setString(7, TextNormalizer.normalize(pais));
+                artista.setLong(8, id);
+                artista.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    perfil.executeBatch();
+                    artista.executeBatch();
+                    connection.commit();
+                }
+            }
+            perfil.executeBatch();
+            artista.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private void insertMusicas(Connection connection, Random random) throws SQLException {
+        Zipf artistaPopularity = new Zipf(artistas, 1.1);
+        Zipf generoPopularity = new Zipf(generos, 1.0);
+        Zipf commonWords = new Zipf(COMMON_WORDS.size(), 1.0);
+        try (PreparedStatement musica = connection.prepareStatement(
+                "insert into Musica (id, titulo, tituloBusca, letra, anoLancamento, nota, duracaoSegundos, artista_id)"
+                        + " values (?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement genero = connection.prepareStatement(
+                     "insert into musica_genero (musica_id, genero_musical_id) values (?, ?)")) {
+            long[] chosen = new long[3];
+            for (int i = 0; i < musicas; i++) {
+                long id = FIRST_ID + i;
+                String titulo = title(random, commonWords);
+
+                musica.setLong(1, id);
+                musica.setString(2, titulo);
+                musica.setString(3, TextNormalizer.normalize(titulo));
+                musica.setString(4, "Letra de " + titulo + ": " + word(random) + " " + word(random) + " " + word(random));
+                musica.setInt(5, 1950 + random.nextInt(76));
+                musica.setDouble(6, random.nextInt(101) / 10.0);
+                musica.setInt(7, 120 + random.nextInt(300));
+                musica.setLong(8, FIRST_ID + artistaPopularity.next(random));
+                musica.addBatch();
+
+                // 1 gênero em metade das músicas, 2 em 35% e 3 no restante, sem repetir
+                int roll = random.nextInt(100);
+                int fanOut = Math.min(generos, roll < 50 ? 1 : roll < 85 ? 2 : 3);
+                for (int g = 0; g < fanOut; g++) {
+                    long generoId;
+                    do {
+                        generoId = FIRST_ID + generoPopularity.next(random);
+                    } while (contains(chosen, g, generoId));
+                    chosen[g] = generoId;
+                    genero.setLong(1, id);
+                    genero.setLong(2, generoId);
+                    genero.addBatch();
+                }
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    musica.executeBatch();
+                    genero.executeBatch();
+                    connection.commit();
+                }
+            }
+            musica.executeBatch();
+            genero.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private static String title(Random random, Zipf commonWords) {
+        int words = 2 + random.nextInt(3);
+        StringBuilder title = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                title.append(' ');
+            }
+            String next = random.nextInt(3) == 0 ? COMMON_WORDS.get(commonWords.next(random)) : word(random);
+            title.append(w == 0 ? capitalize(next) : next);
+        }
+        return title.toString();
+    }
+
+    private static String word(Random random) {
+        int syllables = 2 + random.nextInt(3);
+        StringBuilder word = new StringBuilder();
+        for (int s = 0; s < syllables; s++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sorteia posições de 0 a {@code n - 1} com probabilidade proporcional a {@code 1 / (posição + 1)^s}.
+     */
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double s) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, s);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,190 @@
+package org.acme.bench;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Carga mista de leitura, busca e escrita sobre um catálogo sintético em escala de produção,
+ * gerado pelo {@link CatalogGenerator} antes da inicialização (por padrão 1M músicas, 100k
+ * artistas e 500 gêneros; ajuste com {@code -Dload.musicas}, {@code -Dload.artistas} e
+ * {@code -Dload.generos}). Os resultados por operação vão para {@code target/benchmark/load.csv}, e o
+ * tempo da carga do índice de busca nessa escala, feita na inicialização, para
+ * {@code target/benchmark/search-index.csv}.
+ * O getAll de músicas fica de fora: sem paginação, ele serializaria o catálogo inteiro.
+ */
+@QuarkusTest
+@Tag("benchmark")
+@TestProfile(CatalogLoadTest.Profile.class)
+class CatalogLoadTest {
+
+    private static final Logger LOG = Logger.getLogger(CatalogLoadTest.class);
+
+    private static final Path RESULTS = Path.of("target", "benchmark");
+
+    @TestHTTPResource("/")
+    URI base;
+
+    @Inject
+    CatalogGenerator catalog;
+
+    @Inject
+    MeterRegistry registry;
+
+    public static class Profile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            Map<String, String> config = ExecutionModelBenchmark.config(true);
+            config.put("load-test.catalog.musicas", System.getProperty("load.musicas", "1000000"));
+            config.put("load-test.catalog.artistas", System.getProperty("load.artistas", "100000"));
+            config.put("load-test.catalog.generos", System.getProperty("load.generos", "500"));
+            config.put("load-test.catalog.seed", System.getProperty("load.seed", "42"));
+            return config;
+        }
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        int clients = Integer.getInteger("bench.clients", 64);
+        Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("bench.seconds", 60));
+
+        Map<String, LoadDriver.Result> results = new LoadDriver().run(mix(), clients, warmup, duration);
+
+        List<String> lines = new ArrayList<>();
+        lines.add("operation," + LoadDriver.Result.CSV_HEADER);
+        StringBuilder report = new StringBuilder(String.format(
+                "Carga mista com %d clientes (req/s | p50 ms | p99 ms | erros):", clients));
+        for (Map.Entry<String, LoadDriver.Result> entry : results.entrySet()) {
+            LoadDriver.Result result = entry.getValue();
+            lines.add(entry.getKey() + "," + result.toCsv());
+            report.append(String.format(Locale.ROOT, "%n  %-20s %10.1f | %8.2f | %8.2f | %d", entry.getKey(),
+                    result.throughput(), result.percentileMillis(50), result.percentileMillis(99), result.errors));
+            assertTrue(result.requests > 0, "Nenhuma requisição concluída em " + entry.getKey());
+        }
+        LOG.info(report);
+
+        Files.createDirectories(RESULTS);
+        Files.write(RESULTS.resolve("load.csv"), lines);
+    }
+
+    @Test
+    void searchIndexLoad() throws Exception {
+        // A carga da inicialização já leu o catálogo inteiro; as recargas agendadas custam o mesmo
+        Timer load = registry.find("search.index.load").timer();
+        assertTrue(load != null && load.count() > 0, "Índice de busca não carregado");
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        LOG.infof("Carga do índice de busca: %.0f ms (média de %d cargas), heap após GC: %d MB",
+                load.mean(TimeUnit.MILLISECONDS), load.count(), heap >> 20);
+
+        Files.createDirectories(RESULTS);
+        Files.write(RESULTS.resolve("search-index.csv"), List.of("loads,mean_ms,heap_after_gc_mb",
+                String.format(Locale.ROOT, "%d,%.0f,%d", load.count(), load.mean(TimeUnit.MILLISECONDS), heap >> 20)));
+    }
+
+    /**
+     * Mix de operações com pesos próximos aos de um catálogo público: leituras por id dominam,
+     * buscas vêm em seguida e cerca de 10% são escritas.
+     */
+    private List<LoadDriver.Operation> mix() {
+        return List.of(
+                new LoadDriver.Operation("getMusica", 35, random -> get("/api/v1/musicas/" + musicaId(random))),
+                new LoadDriver.Operation("getArtista", 10, random -> get("/api/v1/artistas/" + artistaId(random))),
+                new LoadDriver.Operation("multiGetMusicas", 5, random -> get("/api/v1/musicas?ids=" + musicaIds(random, 20))),
+                new LoadDriver.Operation("searchMusicas", 20, random -> get("/api/v1/musicas/search?q="
+                        + searchTerm(random) + "&size=20&includeTotal=false")),
+                new LoadDriver.Operation("listMusicas", 5, random -> get("/api/v1/musicas/search?sort=nota&direction=desc&size=20&page="
+                        + random.nextInt(50))),
+                new LoadDriver.Operation("searchArtistas", 5, random -> get("/api/v1/artistas/search?q=brasil&size=20&page="
+                        + random.nextInt(20))),
+                new LoadDriver.Operation("listGeneros", 10, random -> get("/api/v1/generos-musicais")),
+                new LoadDriver.Operation("createMusica", 7, random -> HttpRequest.newBuilder(base.resolve("/api/v1/musicas"))
+                        .header("Content-Type", "application/json")
+                        .header("Accept", "application/json")
+                        .header("X-Idempotency-Key", UUID.randomUUID().toString())
+                        .timeout(Duration.ofSeconds(30))
+                        .POST(HttpRequest.BodyPublishers.ofString(musicaJson(random)))
+                        .build()),
+                new LoadDriver.Operation("updateMusica", 3, random -> HttpRequest.newBuilder(base.resolve("/api/v1/musicas/" + musicaId(random)))
+                        .header("Content-Type", "application/json")
+                        .header("Accept", "application/json")
+                        .timeout(Duration.ofSeconds(30))
+                        .PUT(HttpRequest.BodyPublishers.ofString(musicaJson(random)))
+                        .build()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private long musicaId(Random random) {
+        return catalog.firstId() + random.nextLong(catalog.lastMusicaId() - catalog.firstId() + 1);
+    }
+
+    private long artistaId(Random random) {
+        return catalog.firstId() + random.nextLong(catalog.lastArtistaId() - catalog.firstId() + 1);
+    }
+
+    private long generoId(Random random) {
+        return catalog.firstId() + random.nextLong(catalog.lastGeneroId() - catalog.firstId() + 1);
+    }
+
+    private String musicaIds(Random random, int count) {
+        StringJoiner ids = new StringJoiner(",");
+        for (int i = 0; i < count; i++) {
+            ids.add(Long.toString(musicaId(random)));
+        }
+        return ids.toString();
+    }
+
+    // Termos comuns do gerador (muitos resultados) e trigramas das palavras raras (poucos)
+    private static String searchTerm(Random random) {
+        if (random.nextBoolean()) {
+            return switch (random.nextInt(4)) {
+                case 0 -> "love";
+                case 1 -> "noite";
+                case 2 -> "sonho";
+                default -> "dance";
+            };
+        }
+        return CatalogGenerator.SYLLABLES[random.nextInt(CatalogGenerator.SYLLABLES.length)]
+                + CatalogGenerator.SYLLABLES[random.nextInt(CatalogGenerator.SYLLABLES.length)];
+    }
+
+    private String musicaJson(Random random) {
+        return String.format(Locale.ROOT,
+                "{\"titulo\":\"Carga %d\",\"letra\":\"Letra gerada pelo teste de carga\",\"anoLancamento\":%d,"
+                        + "\"nota\":%.1f,\"duracaoSegundos\":%d,\"artista\":{\"id\":%d},\"generos\":[{\"id\":%d}]}",
+                random.nextInt(1_000_000), 1950 + random.nextInt(76), random.nextInt(101) / 10.0,
+                120 + random.nextInt(300), artistaId(random), generoId(random));
+    }
+}
\ No newline at end of file
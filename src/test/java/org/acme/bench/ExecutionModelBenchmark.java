@@ -0,0 +1,98 @@
+package org.acme.bench;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mede vazão e p99 de cada endpoint sob {@code bench.clients} clientes concorrentes, no modelo
+ * de execução definido pelo perfil da subclasse. Os resultados vão para
+ * {@code target/benchmark/<modo>.csv}; quando os dois modos já rodaram, o comparativo é logado.
+ * Só as buscas rodam em virtual threads quando o modo está ligado; o getById, servido do cache,
+ * fica no worker pool nos dois perfis e serve de controle.
+ */
+abstract class ExecutionModelBenchmark {
+
+    private static final Logger LOG = Logger.getLogger(ExecutionModelBenchmark.class);
+
+    static final List<String> ENDPOINTS = List.of(
+            "/api/v1/musicas/1",
+            // Sem cache de resposta: a página, por substring e ordenada por nota, é lida do banco a cada
+            // requisição; o total vem do cache de contagens depois da primeira
+            "/api/v1/musicas/search?q=an&sort=nota&direction=desc&includeTotal=true",
+            "/api/v1/musicas/search?q=love&includeTotal=false",
+            "/api/v1/artistas/search?q=reino",
+            "/api/v1/generos-musicais/search?q=rock");
+
+    private static final Path RESULTS = Path.of("target", "benchmark");
+
+    @TestHTTPResource("/")
+    URI base;
+
+    abstract String mode();
+
+    /**
+     * Configuração comum aos dois perfis: sem log de SQL e sem os limites de taxa, que
+     * transformariam a medição em contagem de 429.
+     */
+    static Map<String, String> config(boolean virtualThreads) {
+        Map<String, String> config = new HashMap<>();
+        config.put("quarkus.virtual-threads.enabled", String.valueOf(virtualThreads));
+        config.put("quarkus.hibernate-orm.log.sql", "false");
+        config.put("rate-limit.enabled", "false");
+        config.put("org.acme.MusicaResource/getAll/RateLimit/enabled", "false");
+        config.put("org.acme.ArtistaResource/getAll/RateLimit/enabled", "false");
+        config.put("org.acme.GeneroMusicalResource/getAll/RateLimit/enabled", "false");
+        return config;
+    }
+
+    @Test
+    void throughputAndP99() throws Exception {
+        int clients = Integer.getInteger("bench.clients", 64);
+        Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmup-seconds", 3));
+        Duration duration = Duration.ofSeconds(Long.getLong("bench.seconds", 10));
+
+        LoadDriver driver = new LoadDriver();
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint," + LoadDriver.Result.CSV_HEADER);
+        for (String endpoint : ENDPOINTS) {
+            LoadDriver.Result result = driver.run(base.resolve(endpoint), clients, warmup, duration);
+            LOG.infof("[%s] %s com %d clientes: %s", mode(), endpoint, clients, result.toCsv());
+            lines.add(endpoint + "," + result.toCsv());
+            assertTrue(result.requests > 0, "Nenhuma requisição concluída em " + endpoint);
+        }
+
+        Files.createDirectories(RESULTS);
+        Files.write(RESULTS.resolve(mode() + ".csv"), lines);
+        compare();
+    }
+
+    private static void compare() throws Exception {
+        Path worker = RESULTS.resolve(WorkerPoolBenchmarkTest.MODE + ".csv");
+        Path virtual = RESULTS.resolve(VirtualThreadsBenchmarkTest.MODE + ".csv");
+        if (!Files.exists(worker) || !Files.exists(virtual)) {
+            return;
+        }
+        List<String> workerLines = Files.readAllLines(worker);
+        List<String> virtualLines = Files.readAllLines(virtual);
+
+        StringBuilder report = new StringBuilder("Worker pool x virtual threads (req/s | p99 ms):");
+        for (int i = 1; i < Math.min(workerLines.size(), virtualLines.size()); i++) {
+            String[] w = workerLines.get(i).split(",");
+            String[] v = virtualLines.get(i).split(",");
+            report.append(String.format("%n  %-50s %10s | %8s    %10s | %8s", w[0], w[3], w[5], v[3], v[5]));
+        }
+        LOG.info(report);
+    }
+}
\ No newline at end of file
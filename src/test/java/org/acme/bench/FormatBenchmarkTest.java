@@ -0,0 +1,113 @@
+package org.acme.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara JSON, CBOR e Smile nas listagens e buscas: tamanho do corpo, custo de decodificação
+ * no cliente e vazão sob carga. Os resultados vão para {@code target/benchmark/formats.csv}.
+ */
+@QuarkusTest
+@Tag("benchmark")
+@TestProfile(FormatBenchmarkTest.Profile.class)
+class FormatBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(FormatBenchmarkTest.class);
+
+    private static final List<String> ENDPOINTS = List.of(
+            "/api/v1/musicas?expand=artista,perfil,generos",
+            "/api/v1/musicas/search?q=love&size=50&includeTotal=false",
+            "/api/v1/artistas/search?size=50",
+            "/api/v1/generos-musicais");
+
+    private static final Map<String, ObjectMapper> FORMATS = new LinkedHashMap<>();
+
+    static {
+        FORMATS.put("application/json", new ObjectMapper());
+        FORMATS.put("application/cbor", new ObjectMapper(new CBORFactory()));
+        FORMATS.put("application/x-jackson-smile", new ObjectMapper(new SmileFactory()));
+    }
+
+    private static final int DECODE_ROUNDS = 2000;
+
+    @TestHTTPResource("/")
+    URI base;
+
+    @Test
+    void sizeDecodeAndThroughput() throws Exception {
+        int clients = Integer.getInteger("bench.clients", 64);
+        Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmup-seconds", 3));
+        Duration duration = Duration.ofSeconds(Long.getLong("bench.seconds", 10));
+
+        HttpClient http = HttpClient.newHttpClient();
+        LoadDriver driver = new LoadDriver();
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,format,bytes,decode_us," + LoadDriver.Result.CSV_HEADER);
+        for (String endpoint : ENDPOINTS) {
+            URI uri = base.resolve(endpoint);
+            for (Map.Entry<String, ObjectMapper> format : FORMATS.entrySet()) {
+                HttpResponse<byte[]> response = http.send(
+                        HttpRequest.newBuilder(uri).header("Accept", format.getKey()).GET().build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                assertEquals(200, response.statusCode(), endpoint + " em " + format.getKey());
+                assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith(format.getKey()));
+
+                byte[] body = response.body();
+                double decodeMicros = decodeMicros(format.getValue(), body);
+                LoadDriver.Result result = driver.run(uri, format.getKey(), clients, warmup, duration);
+
+                String line = String.format(Locale.ROOT, "%s,%s,%d,%.1f,%s",
+                        endpoint, format.getKey(), body.length, decodeMicros, result.toCsv());
+                LOG.info(line);
+                lines.add(line);
+            }
+        }
+
+        Path results = Path.of("target", "benchmark");
+        Files.createDirectories(results);
+        Files.write(results.resolve("formats.csv"), lines);
+    }
+
+    // Tempo médio de decodificação do corpo em árvore, depois de um aquecimento
+    private static double decodeMicros(ObjectMapper mapper, byte[] body) throws Exception {
+        for (int i = 0; i < DECODE_ROUNDS; i++) {
+            mapper.readTree(body);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < DECODE_ROUNDS; i++) {
+            mapper.readTree(body);
+        }
+        return (System.nanoTime() - start) / 1e3 / DECODE_ROUNDS;
+    }
+
+    public static class Profile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return ExecutionModelBenchmark.config(false);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package org.acme.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Gerador de carga em malha fechada: {@code clients} clientes concorrentes repetem requisições
+ * até o fim da medição, registrando a latência de cada uma. Cada requisição é sorteada de um mix
+ * de {@link Operation operações} conforme o peso, e os resultados saem por operação.
+ */
+public class LoadDriver {
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    /**
+     * Executa um aquecimento descartado e depois a medição, com o mesmo número de clientes.
+     */
+    public Result run(URI uri, int clients, Duration warmup, Duration duration) throws InterruptedException {
+        return run(uri, "application/json", clients, warmup, duration);
+    }
+
+    public Result run(URI uri, String accept, int clients, Duration warmup, Duration duration) throws InterruptedException {
+        Operation get = new Operation(uri.getPath(), 1, random -> HttpRequest.newBuilder(uri)
+                .header("Accept", accept)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build());
+        return run(List.of(get), clients, warmup, duration).get(get.name());
+    }
+
+    /**
+     * Como {@link #run(URI, int, Duration, Duration)}, mas com o mix de operações; o resultado
+     * de cada operação vem pelo nome, na ordem do mix.
+     */
+    public Map<String, Result> run(List<Operation> mix, int clients, Duration warmup, Duration duration) throws InterruptedException {
+        drive(mix, clients, warmup);
+        return drive(mix, clients, duration);
+    }
+
+    private Map<String, Result> drive(List<Operation> mix, int clients, Duration duration) throws InterruptedException {
+        AtomicLongArray errors = new AtomicLongArray(mix.size());
+        int[] cumulative = new int[mix.size()];
+        int total = 0;
+        for (int i = 0; i < mix.size(); i++) {
+            total += mix.get(i).weight();
+            cumulative[i] = total;
+        }
+        int totalWeight = total;
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<long[][]>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < clients; i++) {
+                futures.add(pool.submit(() -> client(mix, cumulative, totalWeight, deadline, errors)));
+            }
+
+            long[][][] perClient = new long[clients][][];
+            for (int i = 0; i < clients; i++) {
+                perClient[i] = futures.get(i).get();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Map<String, Result> results = new LinkedHashMap<>();
+            for (int op = 0; op < mix.size(); op++) {
+                int count = 0;
+                for (long[][] client : perClient) {
+                    count += client[op].length;
+                }
+                long[] latencies = new long[count];
+                int offset = 0;
+                for (long[][] client : perClient) {
+                    System.arraycopy(client[op], 0, latencies, offset, client[op].length);
+                    offset += client[op].length;
+                }
+                Arrays.sort(latencies);
+                results.put(mix.get(op).name(), new Result(latencies, errors.get(op), elapsed));
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha no cliente de carga", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long[][] client(List<Operation> mix, int[] cumulative, int totalWeight, long deadline, AtomicLongArray errors) {
+        Random random = ThreadLocalRandom.current();
+        long[][] latencies = new long[mix.size()][1024];
+        int[] counts = new int[mix.size()];
+        while (System.nanoTime() < deadline) {
+            int op = 0;
+            if (mix.size() > 1) {
+                int pick = random.nextInt(totalWeight);
+                while (cumulative[op] <= pick) {
+                    op++;
+                }
+            }
+            HttpRequest request = mix.get(op).request().apply(random);
+            long sent = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors.incrementAndGet(op);
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet(op);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (counts[op] == latencies[op].length) {
+                latencies[op] = Arrays.copyOf(latencies[op], counts[op] * 2);
+            }
+            latencies[op][counts[op]++] = System.nanoTime() - sent;
+        }
+        for (int op = 0; op < mix.size(); op++) {
+            latencies[op] = Arrays.copyOf(latencies[op], counts[op]);
+        }
+        return latencies;
+    }
+
+    /**
+     * Uma operação do mix: nome usado no relatório, peso relativo no sorteio e a fábrica da
+     * requisição, que recebe o gerador aleatório do cliente para variar ids e termos.
+     */
+    public record Operation(String name, int weight, Function<Random, HttpRequest> request) {
+    }
+
+    public static class Result {
+
+        public static final String CSV_HEADER = "requests,errors,throughput,p50_ms,p99_ms,max_ms";
+
+        private final long[] latencies;
+        public final long requests;
+        public final long errors;
+        public final double seconds;
+
+        Result(long[] sortedLatencies, long errors, long elapsedNanos) {
+            this.latencies = sortedLatencies;
+            this.requests = sortedLatencies.length;
+            this.errors = errors;
+            this.seconds = elapsedNanos / 1e9;
+        }
+
+        public double throughput() {
+            return requests / seconds;
+        }
+
+        public double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%d,%d,%.1f,%.2f,%.2f,%.2f",
+                    requests, errors, throughput(), percentileMillis(50), percentileMillis(99), percentileMillis(100));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package org.acme.bench;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Tag;
+
+import java.util.Map;
+
+@QuarkusTest
+@Tag("benchmark")
+@TestProfile(VirtualThreadsBenchmarkTest.Profile.class)
+class VirtualThreadsBenchmarkTest extends ExecutionModelBenchmark {
+
+    static final String MODE = "virtual-threads";
+
+    @Override
+    String mode() {
+        return MODE;
+    }
+
+    public static class Profile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return config(true);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package org.acme.cache;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Confere que a representação comprimida tem ETag própria, que as respostas comprimíveis
+ * variam pelo Accept-Encoding e que corpos pequenos não são comprimidos.
+ */
+@QuarkusTest
+class CompressionTest {
+
+    // Sem decodificação automática o RestAssured envia só o Accept-Encoding informado
+    private static final RestAssuredConfig RAW = RestAssuredConfig.config()
+            .decoderConfig(DecoderConfig.decoderConfig().noContentDecoders());
+
+    @Test
+    void respostaDoCacheComprimidaTemETagPropria() {
+        String identity = given().config(RAW).header("Accept-Encoding", "identity")
+                .when().get("/api/v1/musicas")
+                .then().statusCode(200)
+                .header("Content-Encoding", nullValue())
+                .header("Vary", containsString("Accept-Encoding"))
+                .extract().header("ETag");
+
+        String gzip = given().config(RAW).header("Accept-Encoding", "gzip")
+                .when().get("/api/v1/musicas")
+                .then().statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .header("ETag", endsWith("-gzip\""))
+                .extract().header("ETag");
+
+        given().config(RAW).header("Accept-Encoding", "gzip").header("If-None-Match", gzip)
+                .when().get("/api/v1/musicas")
+                .then().statusCode(304).header("ETag", gzip);
+        given().config(RAW).header("Accept-Encoding", "identity").header("If-None-Match", identity)
+                .when().get("/api/v1/musicas")
+                .then().statusCode(304).header("ETag", identity);
+    }
+
+    @Test
+    void respostaComprimidaPeloServidorVariaPeloAcceptEncoding() {
+        String gzip = given().config(RAW).header("Accept-Encoding", "gzip")
+                .when().get("/api/v1/musicas/search?size=20")
+                .then().statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .header("Vary", containsString("Accept-Encoding"))
+                .header("ETag", endsWith("-gzip\""))
+                .extract().header("ETag");
+
+        given().config(RAW).header("Accept-Encoding", "gzip").header("If-None-Match", gzip)
+                .when().get("/api/v1/musicas/search?size=20")
+                .then().statusCode(304).header("ETag", gzip);
+    }
+
+    @Test
+    void corpoPequenoNaoEComprimido() {
+        given().config(RAW).header("Accept-Encoding", "gzip")
+                .when().get("/api/v1/generos-musicais/1?fields=id")
+                .then().statusCode(200)
+                .header("Content-Encoding", nullValue())
+                .header("ETag", not(endsWith("-gzip\"")));
+    }
+}
@@ -0,0 +1,40 @@
+package org.acme.cache;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import org.acme.GeneroMusical;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Confere que uma escrita que não passou pelo observador desta réplica (como a feita em outra)
+ * não fica escondida atrás da resposta em cache nem de um 304.
+ */
+@QuarkusTest
+class ResponseCacheTest {
+
+    @Test
+    void escritaDeOutraReplicaNaoConfirmaETagAntiga() {
+        String tag = given().accept("application/json").header("Accept-Encoding", "identity")
+                .when().get("/api/v1/generos-musicais/6")
+                .then().statusCode(200)
+                .extract().header("ETag");
+        given().accept("application/json").header("Accept-Encoding", "identity").header("If-None-Match", tag)
+                .when().get("/api/v1/generos-musicais/6")
+                .then().statusCode(304);
+
+        // Atualização direta no banco, sem o evento EntityChanged
+        QuarkusTransaction.requiringNew().run(() ->
+                GeneroMusical.update("versao = versao + 1 where id = ?1", 6L));
+
+        String updated = given().accept("application/json").header("Accept-Encoding", "identity").header("If-None-Match", tag)
+                .when().get("/api/v1/generos-musicais/6")
+                .then().statusCode(200).header("ETag", not(tag))
+                .extract().header("ETag");
+        given().accept("application/json").header("Accept-Encoding", "identity").header("If-None-Match", updated)
+                .when().get("/api/v1/generos-musicais/6")
+                .then().statusCode(304);
+    }
+}
@@ -0,0 +1,94 @@
+package org.acme.idempotency;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.acme.idempotency.IdempotencyFilter.IdempotencyRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Confere que a reivindicação no banco deixa uma única execução por chave, mesmo com as
+ * reivindicações concorrentes, e que a resposta gravada não é sobrescrita.
+ */
+@QuarkusTest
+class IdempotencyStoreTest {
+
+    @Inject
+    IdempotencyStore store;
+
+    @Test
+    void umaUnicaReivindicacaoPorChave() throws Exception {
+        String key = "POST:/api/v1/musicas:" + UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<IdempotencyStore.Claim>> claims = new ArrayList<>();
+            Callable<IdempotencyStore.Claim> claim = () -> store.claim(key);
+            for (int i = 0; i < 8; i++) {
+                claims.add(executor.submit(claim));
+            }
+            int acquired = 0;
+            for (Future<IdempotencyStore.Claim> result : claims) {
+                IdempotencyStore.Claim value = result.get(10, TimeUnit.SECONDS);
+                if (value.isAcquired()) {
+                    acquired++;
+                } else {
+                    assertTrue(value.isInFlight());
+                }
+            }
+            assertEquals(1, acquired);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void respostaGravadaEReproduzidaESemSobrescrita() {
+        String key = "POST:/api/v1/musicas:" + UUID.randomUUID();
+        assertTrue(store.claim(key).isAcquired());
+        assertNull(store.find(key));
+
+        store.save(key, record(201, "{\"id\":1}"));
+        // Uma segunda gravação sem reivindicação não substitui a primeira
+        store.save(key, record(500, "erro"));
+
+        IdempotencyStore.Claim retry = store.claim(key);
+        assertNotNull(retry.getRecord());
+        assertEquals(201, retry.getRecord().getStatus());
+        assertArrayEquals("{\"id\":1}".getBytes(), retry.getRecord().getBody());
+        assertEquals(201, store.find(key).getStatus());
+    }
+
+    @Test
+    void reivindicacaoLiberadaPodeSerRetomada() throws Exception {
+        String key = "POST:/api/v1/musicas:" + UUID.randomUUID();
+        assertTrue(store.claim(key).isAcquired());
+        store.release(key);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        IdempotencyStore.Claim claim = store.claim(key);
+        while (!claim.isAcquired() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            claim = store.claim(key);
+        }
+        assertTrue(claim.isAcquired());
+    }
+
+    private static IdempotencyRecord record(int status, String body) {
+        return new IdempotencyRecord(status, body.getBytes(), Map.of(), TimeUnit.HOURS.toNanos(1));
+    }
+}
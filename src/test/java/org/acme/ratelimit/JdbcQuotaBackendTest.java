@@ -0,0 +1,161 @@
+package org.acme.ratelimit;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arrendamentos da cota compartilhada no banco: tamanho do lote, conversão do TAT de microssegundos
+ * para a espera em nanossegundos, a segunda tentativa quando outra transação cria a linha do cliente
+ * o orçamento do período nunca ultrapassado com vários arrendamentos ao mesmo tempo e a remoção
+ * das cotas vencidas.
+ */
+@QuarkusTest
+class JdbcQuotaBackendTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Inject
+    JdbcQuotaBackend backend;
+
+    @Test
+    void loteLimitadoAoDisponivel() {
+        String key = key();
+        Duration period = Duration.ofSeconds(10);
+        assertEquals(4, backend.lease(key, 1, 4, 10, period));
+        assertEquals(4, backend.lease(key, 1, 4, 10, period));
+        // Restam 2: menos que o máximo, mas pelo menos o mínimo
+        assertEquals(2, backend.lease(key, 1, 4, 10, period));
+        assertTrue(backend.lease(key, 1, 4, 10, period) < 0);
+    }
+
+    @Test
+    void tatEmMicrossegundosEEsperaEmNanossegundos() {
+        String key = key();
+        Duration period = Duration.ofSeconds(10);
+        long before = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        assertEquals(10, backend.lease(key, 10, 10, 10, period));
+        long after = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+
+        // Dez unidades de um segundo cada a partir de agora
+        long tat = QuarkusTransaction.requiringNew().call(() -> QuotaLease.<QuotaLease>findById(key).tat);
+        assertTrue(tat >= before + TimeUnit.SECONDS.toMicros(10) && tat <= after + TimeUnit.SECONDS.toMicros(10),
+                "TAT fora do esperado: " + tat);
+
+        // Sem unidades: a espera por 1 unidade é de até 1 s e por 3, de até 3 s, em nanossegundos
+        long one = -backend.lease(key, 1, 1, 10, period);
+        assertTrue(one > SECOND / 2 && one <= SECOND, "Espera por 1 unidade: " + one);
+        long three = -backend.lease(key, 3, 3, 10, period);
+        assertTrue(three > 2 * SECOND + SECOND / 2 && three <= 3 * SECOND, "Espera por 3 unidades: " + three);
+    }
+
+    @Test
+    void linhaCriadaPorOutraTransacaoDuranteOArrendamento() throws Exception {
+        String key = key();
+        CountDownLatch inserted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Outro nó cria a linha do cliente e só confirma depois que este já tentou criá-la também
+            Future<?> other = executor.submit(() -> QuarkusTransaction.requiringNew().run(() -> {
+                QuotaLease quota = new QuotaLease();
+                quota.chave = key;
+                quota.tat = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+                quota.persistAndFlush();
+                inserted.countDown();
+                sleep(300);
+            }));
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+
+            assertEquals(5, backend.lease(key, 1, 5, 10, Duration.ofSeconds(10)));
+            other.get(10, TimeUnit.SECONDS);
+            assertEquals(5, backend.lease(key, 1, 10, 10, Duration.ofSeconds(10)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void arrendamentosSimultaneosNaoPassamDoLimite() throws Exception {
+        String key = key();
+        long limit = 200;
+        // Período longo: nenhuma unidade é reposta durante o teste
+        Duration period = Duration.ofHours(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Callable<Long> leases = () -> {
+                long granted = 0;
+                while (true) {
+                    long lease = backend.lease(key, 1, 7, limit, period);
+                    if (lease < 0) {
+                        return granted;
+                    }
+                    assertTrue(lease >= 1 && lease <= 7, "Lote fora do intervalo: " + lease);
+                    granted += lease;
+                }
+            };
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(leases));
+            }
+            long total = 0;
+            for (Future<Long> result : results) {
+                total += result.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(limit, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void varreduraRemoveSoAsCotasVencidas() {
+        String expired = key();
+        String active = key();
+        QuarkusTransaction.requiringNew().run(() -> {
+            long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+            QuotaLease quota = new QuotaLease();
+            quota.chave = expired;
+            quota.tat = now - TimeUnit.SECONDS.toMicros(1);
+            quota.persist();
+        });
+        assertEquals(10, backend.lease(active, 10, 10, 10, Duration.ofSeconds(10)));
+
+        backend.deleteExpired();
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            assertNull(QuotaLease.findById(expired));
+            assertNotNull(QuotaLease.findById(active));
+        });
+        // Sem a linha, o cliente volta com o balde cheio
+        assertEquals(10, backend.lease(expired, 1, 10, 10, Duration.ofSeconds(10)));
+    }
+
+    private static String key() {
+        return "/api/v1|" + UUID.randomUUID();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
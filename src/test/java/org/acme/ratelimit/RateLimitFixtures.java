@@ -0,0 +1,47 @@
+package org.acme.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Monta um {@link RateLimiter} local, sem CDI, com uma única rota {@code api} em {@code /api/v1} e custo
+ * pelo parâmetro {@code size}. A configuração passa pelo mesmo mapeamento da aplicação, com os mesmos
+ * valores padrão e as durações no formato do Quarkus. Usada pelos testes e pelos microbenchmarks de
+ * {@code benchmarks/}.
+ */
+public final class RateLimitFixtures {
+
+    private RateLimitFixtures() {
+    }
+
+    public static RateLimitConfig config(long limit, Duration period, int costUnit, int trustedProxies) {
+        Map<String, String> properties = Map.of(
+                "rate-limit.trusted-proxies", Integer.toString(trustedProxies),
+                "rate-limit.routes.api.path", "/api/v1",
+                "rate-limit.routes.api.limit", Long.toString(limit),
+                "rate-limit.routes.api.period", period.toString(),
+                "rate-limit.routes.api.cost-param", "size",
+                "rate-limit.routes.api.cost-unit", Integer.toString(costUnit));
+        return new SmallRyeConfigBuilder()
+                .withMapping(RateLimitConfig.class)
+                .withConverter(Duration.class, 100, new DurationConverter())
+                .withSources(new PropertiesConfigSource(properties, "RateLimitFixtures"))
+                .build()
+                .getConfigMapping(RateLimitConfig.class);
+    }
+
+    public static RateLimiter limiter(RateLimitConfig config, LongSupplier clock) {
+        RateLimiter limiter = new RateLimiter();
+        limiter.config = config;
+        limiter.registry = new SimpleMeterRegistry();
+        limiter.clock = clock;
+        limiter.init();
+        return limiter;
+    }
+}
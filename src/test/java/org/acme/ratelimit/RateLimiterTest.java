@@ -0,0 +1,129 @@
+package org.acme.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * GCRA com relógio manual: rajada, reposição, custo maior que 1 e custo limitado ao limite da rota.
+ * Rota de 10 requisições a cada 10 s, ou seja, uma unidade reposta por segundo. Com um backend
+ * compartilhado, a sobra dos lotes arrendados.
+ */
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now = TimeUnit.DAYS.toNanos(1);
+    private RateLimiter.Route route;
+
+    @BeforeEach
+    void setUp() {
+        route = RateLimitFixtures.limiter(RateLimitFixtures.config(10, Duration.ofSeconds(10), 50, 0), () -> now)
+                .route("api");
+    }
+
+    @Test
+    void rajadaAteOLimite() {
+        for (long remaining = 9; remaining >= 0; remaining--) {
+            assertEquals(remaining, route.acquire("a", 1));
+        }
+        // A próxima unidade só volta em um segundo
+        assertEquals(-SECOND, route.acquire("a", 1));
+        // Outro cliente tem o próprio balde
+        assertEquals(9, route.acquire("b", 1));
+    }
+
+    @Test
+    void reposicaoComOTempo() {
+        for (int i = 0; i < 10; i++) {
+            route.acquire("a", 1);
+        }
+        now += SECOND / 2;
+        assertEquals(-SECOND / 2, route.acquire("a", 1));
+
+        now += SECOND / 2;
+        assertEquals(0, route.acquire("a", 1));
+
+        now += 5 * SECOND;
+        assertEquals(4, route.acquire("a", 1));
+
+        // Parado por mais de um período, o balde não passa do limite
+        now += 60 * SECOND;
+        assertEquals(9, route.acquire("a", 1));
+    }
+
+    @Test
+    void custoMaiorQueUm() {
+        assertEquals(6, route.acquire("a", 4));
+        assertEquals(-SECOND, route.acquire("a", 7));
+        assertEquals(0, route.acquire("a", 6));
+        assertEquals(-3 * SECOND, route.acquire("a", 3));
+
+        now += 3 * SECOND;
+        assertEquals(0, route.acquire("a", 3));
+    }
+
+    @Test
+    void custoPelaQuery() {
+        assertEquals(1, route.cost(null));
+        assertEquals(1, route.cost(""));
+        assertEquals(1, route.cost("page=2"));
+        assertEquals(1, route.cost("size=0"));
+        assertEquals(1, route.cost("size="));
+        assertEquals(1, route.cost("size=abc"));
+        assertEquals(1, route.cost("size=-100"));
+        assertEquals(1, route.cost("pagesize=500"));
+        assertEquals(1, route.cost("size=50"));
+        assertEquals(2, route.cost("size=51"));
+        assertEquals(3, route.cost("page=1&size=120&sort=id"));
+        // Vale a primeira ocorrência
+        assertEquals(2, route.cost("size=100&size=500"));
+    }
+
+    @Test
+    void custoLimitadoAoLimiteDaRota() {
+        assertEquals(10, route.cost("size=500"));
+        assertEquals(10, route.cost("size=99999999999999999999999999"));
+
+        // Um custo acima do limite nunca seria aceito; limitado, passa com o balde cheio
+        assertEquals(0, route.acquire("a", route.cost("size=100000")));
+        assertEquals(-10 * SECOND, route.acquire("a", route.cost("size=100000")));
+    }
+
+    @Test
+    void sobraDoLoteSomaSeAoProximo() {
+        AtomicInteger leases = new AtomicInteger();
+        QuotaBackend backend = new QuotaBackend() {
+            @Override
+            public String name() {
+                return "fake";
+            }
+
+            @Override
+            public long lease(String key, long min, long max, long limit, Duration period) {
+                leases.incrementAndGet();
+                return max;
+            }
+        };
+        RateLimitConfig config = RateLimitFixtures.config(10, Duration.ofSeconds(10), 50, 0);
+        RateLimiter.Route shared = new RateLimiter.Route("api", config.routes().get("api"), 1000, backend, 10,
+                new SimpleMeterRegistry(), () -> now);
+
+        assertEquals(6, shared.acquire("a", 4));
+        assertEquals(2, shared.acquire("a", 4));
+        // As 2 que sobraram não cobrem o custo: um lote novo de 10, e a sobra continua valendo
+        assertEquals(8, shared.acquire("a", 4));
+        assertEquals(2, leases.get());
+
+        // Vencido o período, a sobra é descartada
+        now += 10 * SECOND;
+        assertEquals(6, shared.acquire("a", 4));
+        assertEquals(3, leases.get());
+    }
+}
@@ -0,0 +1,105 @@
+package org.acme.search;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.acme.Artista;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Paginação por keyset com valores nulos e empates: percorrer as páginas pelo cursor, nas duas
+ * direções, entrega as mesmas linhas e na mesma ordem que a consulta inteira, com os nulos no
+ * início da ordem crescente (NULLS FIRST) e no fim da decrescente (NULLS LAST).
+ */
+@QuarkusTest
+class CursorSeekTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    @Inject
+    Session session;
+
+    @Test
+    void crescenteComNulosPrimeiro() {
+        paginasCobremAConsultaInteira(false);
+    }
+
+    @Test
+    void decrescenteComNulosPorUltimo() {
+        paginasCobremAConsultaInteira(true);
+    }
+
+    @Test
+    void cursorMalformadoRetorna400() {
+        given().when().get("/api/v1/artistas/search?cursor=bm9wZQ")
+                .then().statusCode(400);
+    }
+
+    private void paginasCobremAConsultaInteira(boolean descending) {
+        QuarkusTransaction.begin();
+        try {
+            // Nulos e datas repetidas, desfeitos no rollback
+            LocalDate empate = LocalDate.of(1980, 5, 5);
+            for (LocalDate data : new LocalDate[]{null, empate, null, empate, null, empate, LocalDate.of(1960, 1, 1)}) {
+                Artista artista = new Artista();
+                artista.nomeArtistico = "Cursor " + data;
+                artista.paisDeOrigem = "Brasil";
+                artista.dataDeEstreia = data;
+                artista.persist();
+            }
+            session.flush();
+
+            String orderBy = Cursor.orderBy("a", "dataDeEstreia", descending);
+            List<Artista> all = session.createSelectionQuery("from Artista a order by " + orderBy, Artista.class)
+                    .getResultList();
+            if (descending) {
+                assertNull(all.get(all.size() - 1).dataDeEstreia);
+                assertNotNull(all.get(0).dataDeEstreia);
+            } else {
+                assertNull(all.get(0).dataDeEstreia);
+            }
+
+            List<Long> paged = new ArrayList<>();
+            Cursor cursor = null;
+            while (true) {
+                Map<String, Object> params = new HashMap<>();
+                String where = cursor == null ? "" : " where " + cursor.seek("a", typed(cursor.getValue(), LocalDate::parse), params);
+                SelectionQuery<Artista> query = session.createSelectionQuery(
+                        "from Artista a" + where + " order by " + orderBy, Artista.class);
+                params.forEach(query::setParameter);
+                List<Artista> page = query.setMaxResults(PAGE_SIZE).getResultList();
+                for (Artista artista : page) {
+                    paged.add(artista.id);
+                }
+                if (page.size() < PAGE_SIZE) {
+                    break;
+                }
+                Artista last = page.get(page.size() - 1);
+                // Passa pela codificação, como entre uma requisição e a próxima
+                cursor = Cursor.decode(Cursor.after("dataDeEstreia", descending, last.dataDeEstreia, last.id).encode());
+            }
+
+            assertEquals(all.stream().map(artista -> artista.id).toList(), paged);
+        } finally {
+            QuarkusTransaction.rollback();
+        }
+    }
+
+    private static <T> T typed(String value, Function<String, T> parser) {
+        return value == null ? null : parser.apply(value);
+    }
+}
@@ -0,0 +1,74 @@
+package org.acme.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Codificação do cursor opaco, o marcador de valor nulo e a rejeição de cursores malformados.
+ */
+class CursorTest {
+
+    @Test
+    void idaEVolta() {
+        Cursor cursor = Cursor.decode(Cursor.after("titulo", true, "Pão | Circo", 42).encode());
+        assertEquals("titulo", cursor.getSort());
+        assertTrue(cursor.isDescending());
+        assertEquals("Pão | Circo", cursor.getValue());
+        assertEquals(42, cursor.getId());
+
+        Cursor numerico = Cursor.decode(Cursor.after("nota", false, 9.5, 7).encode());
+        assertFalse(numerico.isDescending());
+        assertEquals("9.5", numerico.getValue());
+    }
+
+    @Test
+    void valorNuloUsaOMarcador() {
+        String token = Cursor.after("dataDeEstreia", false, null, 3).encode();
+        assertEquals("dataDeEstreia|a|3|~", raw(token));
+        assertNull(Cursor.decode(token).getValue());
+
+        // O texto "~" não se confunde com o nulo
+        assertEquals("~", Cursor.decode(Cursor.after("titulo", false, "~", 3).encode()).getValue());
+        assertEquals("", Cursor.decode(Cursor.after("titulo", false, "", 3).encode()).getValue());
+    }
+
+    @Test
+    void cursoresMalformados() {
+        for (String raw : new String[]{"", "titulo", "titulo|a|1", "titulo|x|1|=a", "titulo|a|um|=a", "titulo|a|1|a"}) {
+            assertThrows(IllegalArgumentException.class, () -> Cursor.decode(token(raw)), raw);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("não é base64!"));
+    }
+
+    @Test
+    void nulosComoMenoresValores() {
+        assertEquals("m.id desc", Cursor.orderBy("m", "id", true));
+        assertEquals("m.nota asc nulls first, m.id asc", Cursor.orderBy("m", "nota", false));
+        assertEquals("m.nota desc nulls last, m.id desc", Cursor.orderBy("m", "nota", true));
+    }
+
+    @Test
+    void seekPorId() {
+        Map<String, Object> params = new HashMap<>();
+        assertEquals("m.id < :cursorId", Cursor.after("id", true, 10L, 10).seek("m", 10L, params));
+        assertEquals(Map.of("cursorId", 10L), params);
+    }
+
+    private static String raw(String token) {
+        return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
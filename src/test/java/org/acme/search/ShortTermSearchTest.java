@@ -0,0 +1,33 @@
+package org.acme.search;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Confere que termos curtos demais para o índice de trigramas ainda encontram o texto em qualquer
+ * posição, e não só no início, ignorando maiúsculas e acentos.
+ */
+@QuarkusTest
+class ShortTermSearchTest {
+
+    @Test
+    void termoCurtoEncontraNoMeioDaPalavra() {
+        given().accept("application/json")
+                .when().get("/api/v1/artistas/search?q=YO&size=10")
+                .then().statusCode(200)
+                .body("Artistas.nomeArtistico", contains("Beyoncé"))
+                .body("TotalArtistas", is(1));
+    }
+
+    @Test
+    void termoCurtoIgnoraAcentos() {
+        given().accept("application/json")
+                .when().get("/api/v1/artistas/search?q=ce&size=10")
+                .then().statusCode(200)
+                .body("Artistas.nomeArtistico", contains("Beyoncé"));
+    }
+}
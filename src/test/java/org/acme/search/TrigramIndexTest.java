@@ -0,0 +1,132 @@
+package org.acme.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Busca por substring no índice de trigramas e a interseção por galope das listas de ids.
+ */
+class TrigramIndexTest {
+
+    @Test
+    void indiceVazioNaoEncontraNada() {
+        TrigramIndex index = new TrigramIndex();
+        assertEquals(List.of(), index.search("rock"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void termosDeUmOuDoisCaracteresNaoUsamOIndice() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Abba");
+
+        assertFalse(TrigramIndex.supports(null));
+        assertFalse(TrigramIndex.supports("a"));
+        assertFalse(TrigramIndex.supports(" ab "));
+        assertTrue(TrigramIndex.supports("abb"));
+        assertEquals(List.of(), index.search("ab"));
+    }
+
+    @Test
+    void acentosEMaiusculasSaoIgnorados() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Beyoncé", "Estados Unidos");
+        index.put(2, "Caetano Veloso", "Brasil");
+
+        assertEquals(List.of(1L), index.search("BEYONCE"));
+        assertEquals(List.of(1L), index.search("yoncé"));
+        assertEquals(List.of(2L), index.search("brasil"));
+    }
+
+    @Test
+    void substringConfirmadaContraOTexto() {
+        TrigramIndex index = new TrigramIndex();
+        // Os dois têm os trigramas "abc" e "bcd", mas só o primeiro contém "abcd"
+        index.put(1, "abcd");
+        index.put(2, "abc bcd");
+
+        assertEquals(List.of(1L), index.search("abcd"));
+        assertEquals(List.of(1L, 2L), index.search("abc"));
+    }
+
+    @Test
+    void alteracaoERemocaoAtualizamAsListas() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Bohemian Rhapsody");
+        index.put(1, "Imagine");
+        assertEquals(List.of(), index.search("rhapsody"));
+        assertEquals(List.of(1L), index.search("imagine"));
+
+        index.remove(1);
+        assertEquals(List.of(), index.search("imagine"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void limiteDeCandidatosFicaComOsMenoresIds() {
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 10; id >= 1; id--) {
+            index.put(id, "rock " + id);
+        }
+        assertEquals(List.of(1L, 2L, 3L), index.search("rock", 3));
+        assertEquals(10, index.search("rock", 10).size());
+        assertEquals(List.of(3L), index.search("rock 3", 1));
+    }
+
+    @Test
+    void intersecaoDeListasDisjuntas() {
+        TrigramIndex.PostingList list = postings(2, 4, 6, 8);
+        long[] candidates = {1, 3, 5, 7, 9};
+        assertEquals(0, list.retainAll(candidates, candidates.length));
+
+        TrigramIndex.PostingList vazia = postings();
+        long[] outros = {1, 2};
+        assertEquals(0, vazia.retainAll(outros, outros.length));
+    }
+
+    @Test
+    void intersecaoDeListasDesbalanceadas() {
+        long[] grande = new long[100_000];
+        for (int i = 0; i < grande.length; i++) {
+            grande[i] = i * 2L;
+        }
+        TrigramIndex.PostingList list = postings(grande);
+
+        long[] candidates = {0, 1, 4_000, 4_001, 150_000, 199_998, 200_000};
+        int kept = list.retainAll(candidates, candidates.length);
+        assertArrayEquals(new long[]{0, 4_000, 150_000, 199_998}, Arrays.copyOf(candidates, kept));
+    }
+
+    @Test
+    void intersecaoRespeitaQuantidadeInformada() {
+        TrigramIndex.PostingList list = postings(1, 2, 3, 4, 5);
+        // Só os dois primeiros candidatos valem; o resto do array é lixo de uma rodada anterior
+        long[] candidates = {2, 4, 1, 3};
+        int kept = list.retainAll(candidates, 2);
+        assertArrayEquals(new long[]{2, 4}, Arrays.copyOf(candidates, kept));
+    }
+
+    @Test
+    void listaMantemOrdemSemDuplicatas() {
+        TrigramIndex.PostingList list = postings(5, 1, 3, 3, 9, 7);
+        assertArrayEquals(new long[]{1, 3, 5, 7, 9}, list.toArray());
+        assertTrue(list.remove(3));
+        assertFalse(list.remove(3));
+        assertArrayEquals(new long[]{1, 5, 7, 9}, list.toArray());
+    }
+
+    private static TrigramIndex.PostingList postings(long... ids) {
+        TrigramIndex.PostingList list = new TrigramIndex.PostingList();
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+}